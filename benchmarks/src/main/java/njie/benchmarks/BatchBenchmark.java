@@ -0,0 +1,80 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Batch;
+import njie.Context;
+import njie.Error;
+import njie.Interpreter;
+import njie.MyNumber;
+import njie.Node;
+import njie.RuntimeError;
+import njie.Symbol;
+import njie.SymbolTable;
+
+/**
+ * One expression over many bindings, evaluated column by column by a batch and row by row by the tree walker.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private Node ast;
+    private Context context;
+    private double[] xs;
+    private double[] ys;
+    private double[] out;
+
+    @Setup
+    public void setup() throws Error {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        ast = Fixtures.parse("x * y + y * z - z / x + x ^ 2");
+        context = new Context("<program>", Fixtures.globals());
+        xs = new double[rows];
+        ys = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            xs[i] = i + 1;
+            ys[i] = i * 0.5;
+        }
+        out = new double[rows];
+    }
+
+    @Benchmark
+    public double[] batch() throws RuntimeError {
+        new Batch(rows, context).put("x", xs).put("y", ys).evaluate(ast, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] rows() throws RuntimeError {
+        SymbolTable symbolTable = new SymbolTable(context.getSymbolTable());
+        Context rowContext = new Context("<program>", symbolTable);
+        Symbol x = SymbolTable.symbolOf("x");
+        Symbol y = SymbolTable.symbolOf("y");
+        for (int i = 0; i < rows; i++) {
+            symbolTable.set(x, MyNumber.of(xs[i]));
+            symbolTable.set(y, MyNumber.of(ys[i]));
+            out[i] = Interpreter.visit(ast, rowContext).getValue();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,60 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Error;
+import njie.ExpressionCache;
+import njie.Node;
+
+/**
+ * Parsing a REPL line through the expression cache, when it is cached and when it was evicted, against parsing it
+ * without the cache.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheBenchmark {
+    private ExpressionCache warm;
+    // Holds a single expression, and is given two in turn, so every expression was just evicted.
+    private ExpressionCache cold;
+    private final String[] texts = { Fixtures.VARIABLES, Fixtures.GUARD };
+    private int turn;
+
+    @Setup
+    public void setup() throws Error {
+        warm = new ExpressionCache("<stdin>", 16);
+        warm.parse(Fixtures.VARIABLES);
+        cold = new ExpressionCache("<stdin>", 1);
+    }
+
+    @Benchmark
+    public Node hit() throws Error {
+        return warm.parse(Fixtures.VARIABLES);
+    }
+
+    @Benchmark
+    public Node miss() throws Error {
+        turn ^= 1;
+        return cold.parse(texts[turn]);
+    }
+
+    @Benchmark
+    public Node uncached() throws Error {
+        return Fixtures.parse(Fixtures.VARIABLES);
+    }
+}
@@ -0,0 +1,60 @@
+package njie.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.IncrementalParser;
+import njie.Node;
+import njie.Result;
+
+/**
+ * Typing a character (or a new line) in the middle of a script and erasing it, as an editor does on every keystroke.
+ * The time per keystroke should not grow with the number of lines.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class EditingBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private IncrementalParser editor;
+    private int offset;
+
+    @Setup
+    public void setup() {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < size; i++)
+            script.append("VAR a").append(i % 10).append(" = ").append(i).append(" * 2 + 1\n");
+        editor = new IncrementalParser("<editor>", script.toString());
+        offset = script.length() / 2;
+    }
+
+    @Benchmark
+    public Result<List<Node>> keystroke() {
+        editor.edit(offset, 0, "9");
+        return editor.edit(offset, 1, "");
+    }
+
+    @Benchmark
+    public Result<List<Node>> newline() {
+        editor.edit(offset, 0, "\n");
+        return editor.edit(offset, 1, "");
+    }
+}
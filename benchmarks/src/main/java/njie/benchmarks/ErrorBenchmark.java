@@ -0,0 +1,57 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Context;
+import njie.Error;
+import njie.MyNumber;
+import njie.Node;
+import njie.Result;
+import njie.Validator;
+
+/**
+ * Invalid expressions, as sent to a validation endpoint.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ErrorBenchmark {
+    private Node divisionByZero;
+    private Context context;
+
+    @Setup
+    public void setup() throws Error {
+        divisionByZero = Fixtures.parse("x / (z - 7)");
+        context = new Context("<program>", Fixtures.globals());
+    }
+
+    @Benchmark
+    public Result<Node> syntax() {
+        return Validator.validate("<stdin>", "(1 + 2) * * 3");
+    }
+
+    @Benchmark
+    public Result<Node> character() {
+        return Validator.validate("<stdin>", "1 + 2 $ 3");
+    }
+
+    @Benchmark
+    public Result<MyNumber> runtime() {
+        return Validator.evaluate(divisionByZero, context);
+    }
+}
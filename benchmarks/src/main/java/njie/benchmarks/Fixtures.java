@@ -0,0 +1,80 @@
+package njie.benchmarks;
+
+import java.util.Collections;
+
+import njie.Error;
+import njie.Lexer;
+import njie.MyBoolean;
+import njie.MyNumber;
+import njie.Node;
+import njie.Parser;
+import njie.SymbolTable;
+
+/**
+ * Inputs shared by the benchmarks.
+ * Every benchmark builds its inputs in the setup of its state, so only the inputs of the benchmarks which run are built.
+ * Usage (from the root of the project):
+ *     mvn -B package -DskipTests
+ *     java -jar benchmarks/target/benchmarks.jar [regexp] [-prof gc] [-bm avgt,thrpt,sample] [-tu ns]
+ * The benchmarks measure the average time of an operation by default. -bm overrides the modes of all of them: thrpt
+ * gives operations per time unit, and sample gives the distribution of the time of an operation (its percentiles show
+ * the outliers which an average hides, such as garbage collection or compiling a hot tree). -tu sets the time unit.
+ * @author Gil-Ad Shay.
+ */
+final class Fixtures {
+    // Representative expressions, by name.
+    static final String SHORT = "VAR a = 1 + 2 * 3";
+    static final String VARIABLES = "x * y + y * z - z / x + x ^ 2 > y AND NOT (z == x) OR x * x * x - y * y * y < z";
+    // Guard whose cheap left operand decides the result, so the expensive right operand is skipped.
+    static final String GUARD = "x < 0 AND (x * y + z) / (y - z) ^ 2 > x * x * x - y / z + x ^ y ^ 2";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Get the expression of the given name.
+     * @param name One of short, chain (a long arithmetic chain), nested (deeply nested parentheses), variables and
+     *             guard.
+     * @return Text of the expression.
+     */
+    static String input(String name) {
+        switch (name) {
+            case "short": return SHORT;
+            case "chain": return chain(200);
+            case "nested": return nested(100);
+            case "variables": return VARIABLES;
+            case "guard": return GUARD;
+            default: throw new IllegalArgumentException("Unknown input " + name);
+        }
+    }
+
+    static String chain(int length) {
+        StringBuilder sb = new StringBuilder("1");
+        for (int i = 1; i < length; i++)
+            sb.append(i % 4 == 0 ? " - " : i % 4 == 1 ? " + " : i % 4 == 2 ? " * " : " / ").append(i % 9 + 1);
+        return sb.toString();
+    }
+
+    static String nested(int depth) {
+        return String.join("", Collections.nCopies(depth, "(1 + ")) + "1" + String.join("", Collections.nCopies(depth, ")"));
+    }
+
+    /**
+     * Create a global symbol table with the constants of Main, and x, y and z.
+     * @return New symbol table.
+     */
+    static SymbolTable globals() {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setConstant("NULL", MyNumber.of(0));
+        symbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        symbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        symbolTable.set("x", MyNumber.of(3));
+        symbolTable.set("y", MyNumber.of(4.5));
+        symbolTable.set("z", MyNumber.of(7));
+        return symbolTable;
+    }
+
+    static Node parse(String text) throws Error {
+        return new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+    }
+}
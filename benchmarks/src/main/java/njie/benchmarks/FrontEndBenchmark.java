@@ -0,0 +1,56 @@
+package njie.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Error;
+import njie.Lexer;
+import njie.Node;
+import njie.Parser;
+import njie.Token;
+
+/**
+ * Lexing and parsing of representative expressions.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class FrontEndBenchmark {
+    @Param({ "short", "chain", "nested", "variables", "guard" })
+    public String input;
+
+    private String text;
+    private List<Token> tokens;
+
+    @Setup
+    public void setup() throws Error {
+        text = Fixtures.input(input);
+        tokens = new Lexer("<stdin>", text).makeTokens();
+    }
+
+    @Benchmark
+    public List<Token> lex() throws Error {
+        return new Lexer("<stdin>", text).makeTokens();
+    }
+
+    @Benchmark
+    public Node parse() throws Error {
+        return new Parser(tokens).parse();
+    }
+}
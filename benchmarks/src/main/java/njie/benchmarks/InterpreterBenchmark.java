@@ -0,0 +1,56 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Context;
+import njie.Error;
+import njie.Interpreter;
+import njie.MyNumber;
+import njie.Node;
+import njie.RuntimeError;
+
+/**
+ * Evaluation of representative expressions by every engine.
+ * The time of an evaluation is also sampled, as the JIT engine compiles a tree (and compiles it again after a bailout)
+ * during some of them, which shows in the high percentiles rather than in the average.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class InterpreterBenchmark {
+    @Param({ "short", "chain", "nested", "variables", "guard" })
+    public String input;
+    @Param
+    public Interpreter.Engine engine;
+
+    private Node ast;
+    private Context context;
+
+    @Setup
+    public void setup() throws Error {
+        ast = Fixtures.parse(Fixtures.input(input));
+        context = new Context("<program>", Fixtures.globals());
+        Interpreter.setEngine(engine);
+    }
+
+    @Benchmark
+    public MyNumber visit() throws RuntimeError {
+        return Interpreter.visit(ast, context);
+    }
+}
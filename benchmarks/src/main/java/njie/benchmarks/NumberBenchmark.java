@@ -0,0 +1,81 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.MyBoolean;
+import njie.MyNumber;
+import njie.RuntimeError;
+
+/**
+ * Arithmetic and logic of numbers, on their fast paths and on their promotions.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class NumberBenchmark {
+    private final MyNumber three = MyNumber.of(3);
+    private final MyNumber half = MyNumber.of(0.5);
+    private final MyNumber large = MyNumber.of(Long.MAX_VALUE);
+    private final MyNumber hundred = MyNumber.of(100);
+    private final MyBoolean yes = MyBoolean.TRUE;
+    private final MyBoolean no = MyBoolean.FALSE;
+
+    @Benchmark
+    public MyNumber add() {
+        return three.add(half);
+    }
+
+    @Benchmark
+    public MyNumber addInt() {
+        return three.add(three);
+    }
+
+    @Benchmark
+    public MyNumber addOverflow() {
+        return large.add(three);
+    }
+
+    @Benchmark
+    public MyNumber powInt() {
+        return three.pow(three);
+    }
+
+    @Benchmark
+    public MyNumber powBig() {
+        return three.pow(hundred);
+    }
+
+    @Benchmark
+    public MyNumber div() {
+        return three.div(half);
+    }
+
+    @Benchmark
+    public MyNumber pow() {
+        return three.pow(half);
+    }
+
+    @Benchmark
+    public MyNumber lt() {
+        return three.lt(half);
+    }
+
+    @Benchmark
+    public MyBoolean and() {
+        return yes.and(no);
+    }
+}
@@ -0,0 +1,78 @@
+package njie.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Error;
+import njie.Interpreter;
+import njie.MyNumber;
+import njie.Node;
+import njie.ParallelEvaluator;
+import njie.RuntimeError;
+import njie.Symbol;
+import njie.SymbolTable;
+
+/**
+ * One expression over many bindings, spread across a pool of the given number of threads.
+ * The speedup is bounded by the number of cores of the machine.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelBenchmark {
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    @Param({ "TREE_WALKER", "JIT" })
+    public Interpreter.Engine engine;
+
+    private static final int BINDINGS = 10000;
+
+    private ForkJoinPool pool;
+    private ParallelEvaluator evaluator;
+    private Node ast;
+    private SymbolTable[] bindings;
+
+    @Setup
+    public void setup() throws Error {
+        Interpreter.setEngine(engine);
+        pool = new ForkJoinPool(threads);
+        evaluator = new ParallelEvaluator(pool);
+        ast = Fixtures.parse(Fixtures.VARIABLES);
+        SymbolTable globals = Fixtures.globals();
+        Symbol x = SymbolTable.symbolOf("x");
+        bindings = new SymbolTable[BINDINGS];
+        for (int i = 0; i < BINDINGS; i++) {
+            bindings[i] = new SymbolTable(globals);
+            bindings[i].set(x, MyNumber.of(i + 1));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+    }
+
+    @Benchmark
+    public MyNumber[] evaluate() throws RuntimeError {
+        return evaluator.evaluate(ast, bindings);
+    }
+}
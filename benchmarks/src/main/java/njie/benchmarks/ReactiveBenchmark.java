@@ -0,0 +1,63 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Context;
+import njie.Error;
+import njie.Interpreter;
+import njie.MyNumber;
+import njie.Symbol;
+import njie.SymbolTable;
+
+/**
+ * Changing an input of a reactive symbol table, which evaluates again only the 10 definitions reading it.
+ * The time per update should not grow with the number of definitions.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ReactiveBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private SymbolTable symbolTable;
+    private Symbol input;
+    private final MyNumber one = MyNumber.of(1);
+    private final MyNumber two = MyNumber.of(2);
+
+    @Setup
+    public void setup() throws Error {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        symbolTable = Fixtures.globals();
+        symbolTable.setReactive(true);
+        Context context = new Context("<program>", symbolTable);
+        for (int i = 0; i < size / 10; i++)
+            symbolTable.set("input" + i, MyNumber.of(i));
+        for (int i = 0; i < size; i++)
+            Interpreter.visit(Fixtures.parse("VAR d" + i + " = input" + i / 10 + " * 2 + " + i), context);
+        input = SymbolTable.symbolOf("input" + size / 20);
+    }
+
+    @Benchmark
+    public MyNumber update() {
+        symbolTable.set(input, one);
+        symbolTable.set(input, two);
+        return symbolTable.get(input.getSlot());
+    }
+}
@@ -0,0 +1,58 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Context;
+import njie.Error;
+import njie.Interpreter;
+import njie.MyNumber;
+
+/**
+ * Lexing, parsing and running chains of up to a million terms and deeply nested parentheses (a tenth as deep), end to
+ * end. The time per operation should grow linearly with the size.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ScalingBenchmark {
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int size;
+
+    private String chain;
+    private String nested;
+    private Context context;
+
+    @Setup
+    public void setup() {
+        chain = Fixtures.chain(size);
+        nested = Fixtures.nested(size / 10);
+        context = new Context("<program>", Fixtures.globals());
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+    }
+
+    @Benchmark
+    public MyNumber chain() throws Error {
+        return Interpreter.visit(Fixtures.parse(chain), context);
+    }
+
+    @Benchmark
+    public MyNumber nested() throws Error {
+        return Interpreter.visit(Fixtures.parse(nested), context);
+    }
+}
@@ -0,0 +1,104 @@
+package njie.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Context;
+import njie.Error;
+import njie.Interpreter;
+import njie.Lexer;
+import njie.MappedFileReader;
+import njie.MyNumber;
+import njie.Node;
+import njie.Parser;
+import njie.ScriptImage;
+
+/**
+ * A script of short lines, run by the file mode and line by line as the REPL does, and loaded out of its image rather
+ * than lexed and parsed, as Main does with --image.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ScriptBenchmark {
+    private static final int LINES = 1000;
+
+    private List<String> lines;
+    private Path script;
+    private Path image;
+    private Context context;
+
+    @Setup
+    public void setup() throws Error, IOException {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        context = new Context("<program>", Fixtures.globals());
+        lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++)
+            lines.add(i % 2 == 0 ? "VAR a" + i % 10 + " = " + i + " * 2 + 1" : "a" + (i - 1) % 10 + " / 3 - " + i);
+        script = Files.createTempFile("benchmark", ".njie");
+        Files.write(script, lines);
+        image = Paths.get(script + ".njc");
+        ScriptImage.loadOrCompile(script, image);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(image);
+        Files.deleteIfExists(script);
+    }
+
+    /**
+     * Run the script through the memory-mapped streaming path of Main.
+     */
+    @Benchmark
+    public MyNumber file() throws Error, IOException {
+        Parser parser = new Parser(new Lexer(script.toString(), new MappedFileReader(script)));
+        MyNumber result = null;
+        Node ast;
+        while ((ast = parser.parseStatement()) != null)
+            result = Interpreter.visit(ast, context);
+        return result;
+    }
+
+    /**
+     * Run the script line by line, lexing and parsing every line on its own as the REPL of Main does.
+     */
+    @Benchmark
+    public MyNumber lines() throws Error {
+        MyNumber result = null;
+        for (String line : lines)
+            result = Interpreter.visit(Fixtures.parse(line), context);
+        return result;
+    }
+
+    @Benchmark
+    public List<Node> imageParse() throws Error, IOException {
+        return ScriptImage.parse(script.toString(), Files.readString(script));
+    }
+
+    @Benchmark
+    public List<Node> imageLoad() throws IOException {
+        return ScriptImage.load(script, image);
+    }
+}
@@ -0,0 +1,67 @@
+package njie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Context;
+import njie.Error;
+import njie.Interpreter;
+import njie.MyNumber;
+import njie.Node;
+import njie.Optimizer;
+import njie.RuntimeError;
+
+/**
+ * An expression repeating a subexpression, evaluated as a tree and with the subexpression shared.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class SharingBenchmark {
+    @Param({ "TREE_WALKER", "PRIMITIVE" })
+    public Interpreter.Engine engine;
+
+    private Node tree;
+    private Node dag;
+    private Optimizer optimizer;
+    private Context context;
+
+    @Setup
+    public void setup() throws Error {
+        context = new Context("<program>", Fixtures.globals());
+        tree = Fixtures.parse("(x * y + z) * (x * y + z) - (x * y + z) / (x * y + z + 1) + (x * y + z) ^ 2");
+        optimizer = new Optimizer(context.getSymbolTable());
+        dag = optimizer.share(tree);
+        Interpreter.setEngine(engine);
+    }
+
+    @Benchmark
+    public Node share() {
+        return optimizer.share(tree);
+    }
+
+    @Benchmark
+    public MyNumber tree() throws RuntimeError {
+        return Interpreter.visit(tree, context);
+    }
+
+    @Benchmark
+    public MyNumber dag() throws RuntimeError {
+        return Interpreter.visit(dag, context);
+    }
+}
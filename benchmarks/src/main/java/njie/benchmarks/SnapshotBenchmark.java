@@ -0,0 +1,88 @@
+package njie.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import njie.Context;
+import njie.Error;
+import njie.Interpreter;
+import njie.Node;
+import njie.RuntimeError;
+import njie.ScriptImage;
+import njie.Snapshot;
+import njie.SymbolTable;
+
+/**
+ * A prelude of definitions run into a fresh symbol table, and the same symbol table restored out of its snapshot.
+ * @author Gil-Ad Shay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+    private static final int DEFINITIONS = 1000;
+
+    private String prelude;
+    private byte[] hash;
+    private Path snapshot;
+
+    @Setup
+    public void setup() throws Error, IOException {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        List<String> definitions = new ArrayList<>();
+        for (int i = 0; i < DEFINITIONS; i++)
+            definitions.add(i == 0 ? "VAR p0 = 1" : "VAR p" + i + " = p" + (i - 1) + " + " + i);
+        prelude = String.join("\n", definitions);
+        hash = ScriptImage.hash(ByteBuffer.wrap(prelude.getBytes(StandardCharsets.UTF_8)));
+        snapshot = Files.createTempFile("benchmark", ".snapshot");
+        List<Node> statements = ScriptImage.parse("<prelude>", prelude);
+        Snapshot.write(snapshot, hash, statements, run(statements));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+    }
+
+    /**
+     * Run the statements of the prelude into a new symbol table, as Main does before taking a snapshot.
+     */
+    private static SymbolTable run(List<Node> statements) throws RuntimeError {
+        SymbolTable symbolTable = new SymbolTable();
+        for (Node ast : statements)
+            Interpreter.visit(ast, new Context("<program>", symbolTable));
+        return symbolTable;
+    }
+
+    @Benchmark
+    public SymbolTable prelude() throws Error {
+        return run(ScriptImage.parse("<prelude>", prelude));
+    }
+
+    @Benchmark
+    public boolean restore() throws IOException {
+        SymbolTable symbolTable = new SymbolTable();
+        return Snapshot.restore(snapshot, hash, symbolTable, new Context("<program>", symbolTable));
+    }
+}
@@ -0,0 +1,250 @@
+package njie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class for evaluating one expression over many bindings at once.
+ * Variables are bound to columns of primitive values, and the expression is evaluated column by column,
+ * so no number is created per row.
+ * Variables which are not columns of the batch are looked up in the symbol table of the context, and shared by all rows.
+ * A runtime error names the first row it occurs in, whether the tree is evaluated column by column or row by row.
+ * @see Column
+ * @author Gil-Ad Shay.
+ */
+public class Batch {
+    private final int size;
+    private final Context context;
+    // Indexed by slot.
+    private Column[] columns;
+    // Variables which are columns, in the order they were bound.
+    private final List<Symbol> symbols;
+    // Rows which are evaluated (null for all rows). Other rows are computed too, but can not raise errors.
+    private final boolean[] active;
+
+    /**
+     * Initialize a new batch.
+     * @param size Number of rows.
+     * @param context Context of the evaluation, for variables which are not columns and for tracking errors.
+     */
+    public Batch(int size, Context context) {
+        this.size = size;
+        this.context = context;
+        this.columns = new Column[0];
+        this.symbols = new ArrayList<>();
+        this.active = null;
+    }
+
+    private Batch(Batch batch, boolean[] active) {
+        this.size = batch.size;
+        this.context = batch.context;
+        this.columns = batch.columns;
+        this.symbols = batch.symbols;
+        this.active = active;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * Bind the given variable to a column.
+     * @param name Name of the variable.
+     * @param column Column of the variable.
+     * @return This batch.
+     */
+    private Batch put(String name, Column column) {
+        Symbol symbol = SymbolTable.symbolOf(name);
+        int slot = symbol.getSlot();
+        if (slot >= columns.length)
+            columns = Arrays.copyOf(columns, slot + 1);
+        if (columns[slot] == null)
+            symbols.add(symbol);
+        columns[slot] = column;
+        return this;
+    }
+
+    /**
+     * Check that a column has a value for every row.
+     * @param length Length of the column.
+     */
+    private void checkLength(int length) {
+        if (length != size)
+            throw new IllegalArgumentException(String.format("Expected a column of %d rows, got %d", size, length));
+    }
+
+    /**
+     * Bind the given variable to a column of integers.
+     * @param name Name of the variable.
+     * @param values Values of the rows.
+     * @return This batch.
+     */
+    public Batch put(String name, int[] values) {
+        checkLength(values.length);
+        long[] column = new long[size];
+        for (int i = 0; i < size; i++)
+            column[i] = values[i];
+        return put(name, Column.of(column));
+    }
+
+    /**
+     * Bind the given variable to a column of integers.
+     * The array is used as is, so it must not be changed during the evaluation.
+     * @param name Name of the variable.
+     * @param values Values of the rows.
+     * @return This batch.
+     */
+    public Batch put(String name, long[] values) {
+        checkLength(values.length);
+        return put(name, Column.of(values));
+    }
+
+    /**
+     * Bind the given variable to a column of floats.
+     * @param name Name of the variable.
+     * @param values Values of the rows.
+     * @return This batch.
+     */
+    public Batch put(String name, float[] values) {
+        checkLength(values.length);
+        double[] column = new double[size];
+        for (int i = 0; i < size; i++)
+            column[i] = values[i];
+        return put(name, Column.of(column));
+    }
+
+    /**
+     * Bind the given variable to a column of floats.
+     * The array is used as is, so it must not be changed during the evaluation.
+     * @param name Name of the variable.
+     * @param values Values of the rows.
+     * @return This batch.
+     */
+    public Batch put(String name, double[] values) {
+        checkLength(values.length);
+        return put(name, Column.of(values));
+    }
+
+    /**
+     * Check whether the given row is evaluated (e.g. it is not skipped by a short-circuiting AND or OR).
+     * @param row Given row.
+     * @return true if the row is evaluated.
+     */
+    public boolean isActive(int row) {
+        return active == null || active[row];
+    }
+
+    /**
+     * Get the first row which is evaluated.
+     * @return Index of the row.
+     */
+    public int firstActiveRow() {
+        int row = 0;
+        while (!isActive(row))
+            row++;
+        return row;
+    }
+
+    /**
+     * Create the error of evaluating the given row.
+     * @param details Details of the error.
+     * @param start Starting position of the error.
+     * @param end Ending position of the error.
+     * @param row Index of the row.
+     * @return Error naming the row.
+     */
+    public RuntimeError error(String details, Position start, Position end, int row) {
+        return new RuntimeError(String.format("%s in row %d", details, row), start, end, context);
+    }
+
+    /**
+     * Get the view of this batch which only evaluates the rows where the given boolean column has the given value.
+     * @param column Boolean column.
+     * @param value Value of the selected rows.
+     * @return View of the selected rows. null if no row is selected.
+     */
+    public Batch select(Column column, boolean value) {
+        boolean[] selected = new boolean[size];
+        boolean any = false;
+        for (int i = 0; i < size; i++) {
+            selected[i] = isActive(i) && (column.getLong(i) != 0) == value;
+            any |= selected[i];
+        }
+        return any ? new Batch(this, selected) : null;
+    }
+
+    /**
+     * Get the column of the variable in the given slot.
+     * @param slot Slot of the variable.
+     * @return Column of the variable. null if the variable is not a column of this batch.
+     */
+    public Column getColumn(int slot) {
+        return slot < columns.length ? columns[slot] : null;
+    }
+
+    /**
+     * Evaluate the given tree for every row of this batch.
+     * Trees deeper than Interpreter.MAX_RECURSION_DEPTH, and trees with integers which do not fit a long,
+     * are compiled once and run on the virtual machine row by row.
+     * @param node Root of the tree.
+     * @param out Array receiving the result of every row (booleans are 1 for TRUE and 0 for FALSE).
+     * @throws RuntimeError In case of a runtime error in any row.
+     */
+    public void evaluate(Node node, float[] out) throws RuntimeError {
+        double[] result = new double[out.length];
+        evaluate(node, result);
+        for (int i = 0; i < out.length; i++)
+            out[i] = (float) result[i];
+    }
+
+    /**
+     * Evaluate the given tree for every row of this batch.
+     * Trees deeper than Interpreter.MAX_RECURSION_DEPTH, and trees with integers which do not fit a long,
+     * are compiled once and run on the virtual machine row by row.
+     * @param node Root of the tree.
+     * @param out Array receiving the result of every row (booleans are 1 for TRUE and 0 for FALSE).
+     * @throws RuntimeError In case of a runtime error in any row.
+     */
+    public void evaluate(Node node, double[] out) throws RuntimeError {
+        checkLength(out.length);
+        if (node.getDepth() > Interpreter.MAX_RECURSION_DEPTH) {
+            evaluateRows(node.getChunk(), out);
+            return;
+        }
+        try {
+            node.visit(this).copyTo(out);
+        } catch (ArithmeticException e) {
+            // Overflowed a long, which columns can not hold
+            evaluateRows(node.getChunk(), out);
+        }
+    }
+
+    /**
+     * Run the given chunk for every row of this batch, binding the columns in a symbol table of the row.
+     * @param chunk Compiled chunk of the tree.
+     * @param out Array receiving the result of every row.
+     * @throws RuntimeError In case of a runtime error in any row, or if the chunk assigns a variable.
+     */
+    private void evaluateRows(Chunk chunk, double[] out) throws RuntimeError {
+        for (int i = 0; i < chunk.size(); i++)
+            if (chunk.getOpCode(i) == OpCode.STORE)
+                throw new RuntimeError("Can not assign variables in a batch", chunk.getStart(i), chunk.getEnd(i), context);
+
+        SymbolTable symbolTable = new SymbolTable(context.getSymbolTable());
+        Context rowContext = new Context(context.getDisplayName(), symbolTable);
+        for (int row = 0; row < size; row++) {
+            for (Symbol symbol : symbols)
+                symbolTable.set(symbol, columns[symbol.getSlot()].getNumber(row));
+            try {
+                out[row] = VirtualMachine.run(chunk, rowContext).getValue();
+            } catch (RuntimeError e) {
+                throw error(e.getDetails(), e.getStart(), e.getEnd(), row);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package njie;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class for node which represents a binary opreation.
+ * @author Gil-Ad Shay.
+ */
+public class BinOpNode extends Node {
+    private final Node leftChild;
+    private final Node rightChild;
+    private final Token operator;
+    private final OpCode opCode;
+
+    private static final Map<Token, OpCode> OP_CODES = new HashMap<>() {{
+        put(new Token(Token.Type.PLUS), OpCode.ADD);
+        put(new Token(Token.Type.MIN), OpCode.SUB);
+        put(new Token(Token.Type.MUL), OpCode.MUL);
+        put(new Token(Token.Type.DIV), OpCode.DIV);
+        put(new Token(Token.Type.POW), OpCode.POW);
+        put(new Token(Token.Type.EQUALS), OpCode.EQ);
+        put(new Token(Token.Type.NOT_EQUALS), OpCode.NEQ);
+        put(new Token(Token.Type.LESS_THAN), OpCode.LT);
+        put(new Token(Token.Type.LESS_THAN_OR_EQUALS), OpCode.LTE);
+        put(new Token(Token.Type.GREATER_THAN), OpCode.GT);
+        put(new Token(Token.Type.GREATER_THAN_OR_EQUALS), OpCode.GTE);
+        put(new KeywordToken(KeywordToken.Keyword.AND), OpCode.AND);
+        put(new KeywordToken(KeywordToken.Keyword.OR), OpCode.OR);
+    }};
+
+    /**
+     * Initialize a new binary operation node.
+     * The operator is resolved into an instruction once, so visiting the node does not look it up again.
+     * @param left Left operand.
+     * @param operator Binary operator.
+     * @param right Right operand.
+     */
+    public BinOpNode(Node left, Token operator, Node right) {
+        super(left.getStart(), right.getEnd(), Math.max(left.getDepth(), right.getDepth()) + 1);
+        this.leftChild = left;
+        this.rightChild = right;
+        this.operator = operator.intern();
+        this.opCode = OP_CODES.get(operator);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%s, %s, %s)", leftChild.toString(), operator.toString(), rightChild.toString());
+    }
+
+    /**
+     * Check whether this operation is AND or OR, whose right operand is only evaluated if the left one does not decide the result.
+     * @return true if this operation is logical.
+     */
+    private boolean isLogical() {
+        return opCode == OpCode.AND || opCode == OpCode.OR;
+    }
+
+    /**
+     * Check whether the given left operand decides the result of this logical operation (FALSE for AND, TRUE for OR).
+     * @param left Value of the left operand.
+     * @return true if the right operand does not have to be evaluated.
+     */
+    private boolean decides(boolean left) {
+        return left == (opCode == OpCode.OR);
+    }
+
+    @Override
+    public MyNumber visit(Context context) throws RuntimeError {
+        MyNumber leftNumber = leftChild.visit(context);
+        if (isLogical()) {
+            try {
+                if (decides(leftNumber.toBoolean().getBooleanValue()))
+                    return MyBoolean.valueOf(opCode == OpCode.OR);
+            } catch (ArithmeticException e) {
+                throw new RuntimeError(e.getMessage(), leftChild.getStart(), leftChild.getEnd(), context);
+            }
+        }
+        MyNumber rightNumber = rightChild.visit(context);
+        try {
+            return leftNumber.apply(opCode, rightNumber);
+        } catch (ArithmeticException e) {
+            throw new RuntimeError(e.getMessage(), rightChild.getStart(), rightChild.getEnd(), context);
+        }
+    }
+
+    @Override
+    public void evaluate(Frame frame) throws RuntimeError {
+        leftChild.evaluate(frame);
+        if (isLogical() && frame.shortCircuits(opCode, leftChild))
+            return;
+        rightChild.evaluate(frame);
+        frame.binaryOperation(opCode, leftChild, rightChild);
+    }
+
+    @Override
+    public Column visit(Batch batch) throws RuntimeError {
+        Column left = leftChild.visit(batch);
+        if (isLogical()) {
+            // Evaluate the right operand only for the rows the left operand does not decide.
+            Column.requireBoolean(left, leftChild, batch);
+            batch = batch.select(left, opCode == OpCode.AND);
+            if (batch == null)
+                return left;
+        }
+        Column right = rightChild.visit(batch);
+        return Column.binaryOperation(opCode, left, right, leftChild, rightChild, batch);
+    }
+
+    @Override
+    public int getChildCount() {
+        return 2;
+    }
+
+    @Override
+    public Node getChild(int idx) {
+        if (idx != 0 && idx != 1)
+            throw new IndexOutOfBoundsException(idx);
+        return idx == 0 ? leftChild : rightChild;
+    }
+
+    @Override
+    public void compile(Compiler compiler, int step) {
+        // Between the operands, skip the right one if the left one decides the result
+        if (step == 1 && isLogical())
+            compiler.emitJump(opCode == OpCode.AND ? OpCode.JUMP_IF_FALSE : OpCode.JUMP_IF_TRUE, this);
+        if (step == 2) {
+            compiler.emit(opCode, this);
+            if (isLogical())
+                compiler.patchJump();
+        }
+    }
+
+    @Override
+    public boolean isAlwaysEvaluated(int idx) {
+        return idx == 0 || !isLogical();
+    }
+
+    @Override
+    public Object getOperation() {
+        return opCode;
+    }
+
+    @Override
+    public Node withChildren(Node[] children) {
+        return new BinOpNode(children[0], operator, children[1]);
+    }
+
+    @Override
+    public void write(ScriptImage.Writer writer) {
+        writer.writeOperation(operator, this);
+    }
+
+    @Override
+    public Node fold(Optimizer optimizer) {
+        Node left = leftChild.fold(optimizer);
+        Node right = rightChild.fold(optimizer);
+        Node node = left == leftChild && right == rightChild ? this : new BinOpNode(left, operator, right);
+        if (isLogical() && Optimizer.isLiteral(left)) {
+            MyNumber value = ((NumberNode) left).getValue();
+            // Operands which are not booleans are left, so the error is raised when the program runs
+            if (!(value instanceof MyBoolean))
+                return node;
+            if (decides(((MyBoolean) value).getBooleanValue()))
+                return optimizer.literal(MyBoolean.valueOf(opCode == OpCode.OR), node);
+            if (Optimizer.isLiteral(right) && !(((NumberNode) right).getValue() instanceof MyBoolean))
+                return node;
+        }
+        return Optimizer.isLiteral(left) && Optimizer.isLiteral(right) ? optimizer.tryFold(node) : node;
+    }
+}
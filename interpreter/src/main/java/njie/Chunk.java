@@ -0,0 +1,89 @@
+package njie;
+
+/**
+ * Compiled form of an AST: a flat array of instructions for the virtual machine.
+ * Every instruction keeps the node it was generated from, whose span is used so errors are reported exactly as in the
+ * tree walker.
+ * @see Compiler
+ * @see VirtualMachine
+ * @author Gil-Ad Shay.
+ */
+public class Chunk {
+    private final OpCode[] opCodes;
+    private final int[] operands;
+    private final Node[] nodes;
+    private final MyNumber[] constants;
+    private final int maxStack;
+
+    /**
+     * Initialize a new chunk.
+     * @param opCodes Instructions.
+     * @param operands Operand of each instruction.
+     * @param nodes Node each instruction was generated from.
+     * @param constants Constant pool.
+     * @param maxStack Maximal depth of the stack while running the chunk.
+     */
+    public Chunk(OpCode[] opCodes, int[] operands, Node[] nodes, MyNumber[] constants, int maxStack) {
+        this.opCodes = opCodes;
+        this.operands = operands;
+        this.nodes = nodes;
+        this.constants = constants;
+        this.maxStack = maxStack;
+    }
+
+    public int size() {
+        return opCodes.length;
+    }
+
+    OpCode[] getOpCodes() {
+        return opCodes;
+    }
+
+    int[] getOperands() {
+        return operands;
+    }
+
+    public OpCode getOpCode(int idx) {
+        return opCodes[idx];
+    }
+
+    public int getOperand(int idx) {
+        return operands[idx];
+    }
+
+    public Node getNode(int idx) {
+        return nodes[idx];
+    }
+
+    public Position getStart(int idx) {
+        return nodes[idx].getStart();
+    }
+
+    public Position getEnd(int idx) {
+        return nodes[idx].getEnd();
+    }
+
+    public MyNumber getConstant(int idx) {
+        return constants[idx];
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < opCodes.length; i++) {
+            sb.append(String.format("%04d %s", i, opCodes[i]));
+            if (opCodes[i] == OpCode.CONST)
+                sb.append(" " + constants[operands[i]]);
+            else if (opCodes[i] == OpCode.LOAD || opCodes[i] == OpCode.STORE)
+                sb.append(" " + SymbolTable.nameOf(operands[i]));
+            else if (opCodes[i] == OpCode.JUMP_IF_FALSE || opCodes[i] == OpCode.JUMP_IF_TRUE)
+                sb.append(String.format(" %04d", operands[i]));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,324 @@
+package njie;
+
+import java.util.Arrays;
+
+/**
+ * Column of unboxed values of a single kind, the result of evaluating a node over a whole batch.
+ * A scalar column holds one value shared by all rows (e.g. a literal, or a variable which is not a column of the batch).
+ * Integers and booleans (1 or 0) are held as longs, and floats as doubles. Integers which do not fit a long can not be
+ * held by a column: creating one throws ArithmeticException, and the batch evaluates the tree row by row instead.
+ * @see Batch
+ * @author Gil-Ad Shay.
+ */
+public class Column {
+    // Values of integers and booleans. null for floats.
+    private final long[] longs;
+    // Values of floats. null for integers and booleans.
+    private final double[] doubles;
+    private final Frame.Kind kind;
+    private final boolean scalar;
+    // Whether the values belong to this evaluation, so they can be overwritten by the next operation.
+    private final boolean temporary;
+
+    private Column(long[] longs, double[] doubles, Frame.Kind kind, boolean scalar, boolean temporary) {
+        this.longs = longs;
+        this.doubles = doubles;
+        this.kind = kind;
+        this.scalar = scalar;
+        this.temporary = temporary;
+    }
+
+    /**
+     * Create a column of integers out of the given values.
+     * @param values Values of the rows.
+     * @return Column of the given values.
+     */
+    public static Column of(long[] values) {
+        return new Column(values, null, Frame.Kind.INT, false, false);
+    }
+
+    /**
+     * Create a column of floats out of the given values.
+     * @param values Values of the rows.
+     * @return Column of the given values.
+     */
+    public static Column of(double[] values) {
+        return new Column(null, values, Frame.Kind.FLOAT, false, false);
+    }
+
+    /**
+     * Create a scalar column.
+     * @param number Value of all the rows.
+     * @return Scalar column of the given value.
+     * @throws ArithmeticException If the number is an integer which does not fit a long.
+     */
+    public static Column scalar(MyNumber number) {
+        if (!number.isInteger())
+            return new Column(null, new double[] { number.getValue() }, Frame.Kind.FLOAT, true, false);
+        if (number.isBig())
+            throw new ArithmeticException("Integer does not fit a long");
+        Frame.Kind kind = number instanceof MyBoolean ? Frame.Kind.BOOLEAN : Frame.Kind.INT;
+        return new Column(new long[] { number.getLongValue() }, null, kind, true, false);
+    }
+
+    public Frame.Kind getKind() {
+        return kind;
+    }
+
+    public boolean isScalar() {
+        return scalar;
+    }
+
+    /**
+     * Get the value of the given row of an integer or boolean column.
+     * @param row Given row.
+     * @return Value of the row.
+     */
+    public long getLong(int row) {
+        return longs[scalar ? 0 : row];
+    }
+
+    /**
+     * Get the value of the given row as a double.
+     * @param row Given row.
+     * @return Value of the row.
+     */
+    public double getDouble(int row) {
+        return doubles != null ? doubles[scalar ? 0 : row] : longs[scalar ? 0 : row];
+    }
+
+    /**
+     * Get the value of the given row as a number.
+     * @param row Given row.
+     * @return Number of the row, of the kind of this column.
+     */
+    public MyNumber getNumber(int row) {
+        switch (kind) {
+            case BOOLEAN: return MyBoolean.valueOf(getLong(row) != 0);
+            case INT: return MyNumber.of(getLong(row));
+            default: return MyNumber.of(getDouble(row));
+        }
+    }
+
+    /**
+     * Copy the values of this column into the given array.
+     * @param out Array of the size of the batch.
+     */
+    public void copyTo(double[] out) {
+        if (scalar)
+            Arrays.fill(out, getDouble(0));
+        else if (doubles != null)
+            System.arraycopy(doubles, 0, out, 0, out.length);
+        else
+            for (int i = 0; i < out.length; i++)
+                out[i] = longs[i];
+    }
+
+    /**
+     * Get an array of longs for the result of an operation on the given operands, reusing the values of a temporary operand.
+     * @param size Size of the batch.
+     * @param operands Operands of the operation.
+     * @return Array for the result.
+     */
+    private static long[] longResult(int size, Column... operands) {
+        for (Column operand : operands)
+            if (operand.temporary && !operand.scalar && operand.longs != null)
+                return operand.longs;
+        return new long[size];
+    }
+
+    /**
+     * Get an array of doubles for the result of an operation on the given operands, reusing the values of a temporary operand.
+     * @param size Size of the batch.
+     * @param operands Operands of the operation.
+     * @return Array for the result.
+     */
+    private static double[] doubleResult(int size, Column... operands) {
+        for (Column operand : operands)
+            if (operand.temporary && !operand.scalar && operand.doubles != null)
+                return operand.doubles;
+        return new double[size];
+    }
+
+    /**
+     * Apply a unary instruction on every row of the given column.
+     * Follows the rules of Frame.unaryOperation.
+     * @param opCode Unary instruction (NEG, NOT or ID).
+     * @param column Operand.
+     * @param operand Node of the operand, used for its span in errors.
+     * @param batch Batch of the evaluation.
+     * @return Column of the results.
+     * @throws RuntimeError If NOT is applied on a value which is not a boolean.
+     * @throws ArithmeticException If a negated integer overflows a long.
+     */
+    public static Column unaryOperation(OpCode opCode, Column column, Node operand, Batch batch) throws RuntimeError {
+        if (opCode == OpCode.ID)
+            return column;
+        if (opCode == OpCode.NOT && column.kind != Frame.Kind.BOOLEAN)
+            throw batch.error("Expected a boolean value", operand.getStart(), operand.getEnd(), batch.firstActiveRow());
+
+        int size = column.scalar ? 1 : batch.size();
+        if (column.kind == Frame.Kind.FLOAT) {
+            double[] result = column.scalar ? new double[1] : doubleResult(size, column);
+            for (int i = 0; i < size; i++)
+                result[i] = -column.doubles[i];
+            return new Column(null, result, Frame.Kind.FLOAT, column.scalar, true);
+        }
+        long[] result = column.scalar ? new long[1] : longResult(size, column);
+        long[] x = column.longs;
+        if (opCode == OpCode.NOT) {
+            for (int i = 0; i < size; i++)
+                result[i] = x[i] != 0 ? 0 : 1;
+            return new Column(result, null, Frame.Kind.BOOLEAN, column.scalar, true);
+        }
+        for (int i = 0; i < size; i++)
+            result[i] = Math.negateExact(x[i]);
+        return new Column(result, null, Frame.Kind.INT, column.scalar, true);
+    }
+
+    /**
+     * Apply a binary instruction on every row of the given columns.
+     * Follows the rules of Frame.binaryOperation: integers are computed on longs, and floats on doubles.
+     * @param opCode Binary instruction.
+     * @param left Left operand.
+     * @param right Right operand.
+     * @param leftNode Node of the left operand, used for its span in errors.
+     * @param rightNode Node of the right operand, used for its span in errors.
+     * @param batch Batch of the evaluation.
+     * @return Column of the results.
+     * @throws RuntimeError In case of division by zero, or a logical operation on a value which is not a boolean.
+     * @throws ArithmeticException If an integer result overflows a long.
+     */
+    public static Column binaryOperation(OpCode opCode, Column left, Column right, Node leftNode, Node rightNode, Batch batch) throws RuntimeError {
+        boolean scalar = left.scalar && right.scalar;
+        int size = scalar ? 1 : batch.size();
+        boolean isInteger = left.kind != Frame.Kind.FLOAT && right.kind != Frame.Kind.FLOAT;
+
+        if (opCode == OpCode.AND || opCode == OpCode.OR) {
+            requireBoolean(left, leftNode, batch);
+            requireBoolean(right, rightNode, batch);
+        }
+        if (opCode == OpCode.DIV) {
+            for (int i = 0; i < size; i++)
+                if (right.getDouble(i) == 0 && (scalar || batch.isActive(i)))
+                    throw batch.error("Division by zero", rightNode.getStart(), rightNode.getEnd(), scalar ? batch.firstActiveRow() : i);
+        }
+
+        switch (opCode) {
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case POW:
+                return isInteger ? longArithmetic(opCode, left, right, size, scalar) : doubleArithmetic(opCode, left, right, size, scalar);
+            default: {
+                long[] result = scalar ? new long[1] : longResult(size, left, right);
+                if (isInteger) {
+                    for (int i = 0; i < size; i++)
+                        result[i] = compare(opCode, left.getLong(i), right.getLong(i)) ? 1 : 0;
+                } else {
+                    for (int i = 0; i < size; i++)
+                        result[i] = MyNumber.compare(opCode, left.getDouble(i), right.getDouble(i)) ? 1 : 0;
+                }
+                return new Column(result, null, Frame.Kind.BOOLEAN, scalar, true);
+            }
+        }
+    }
+
+    /**
+     * Apply an arithmetic instruction on every row of two integer (or boolean) columns.
+     * @param opCode Arithmetic instruction.
+     * @param left Left operand.
+     * @param right Right operand.
+     * @param size Number of rows to compute.
+     * @param scalar Whether both operands are scalars.
+     * @return Column of the results.
+     * @throws ArithmeticException If a result overflows a long.
+     */
+    private static Column longArithmetic(OpCode opCode, Column left, Column right, int size, boolean scalar) {
+        long[] result = scalar ? new long[1] : longResult(size, left, right);
+        switch (opCode) {
+            case ADD:
+                for (int i = 0; i < size; i++)
+                    result[i] = Math.addExact(left.getLong(i), right.getLong(i));
+                break;
+            case SUB:
+                for (int i = 0; i < size; i++)
+                    result[i] = Math.subtractExact(left.getLong(i), right.getLong(i));
+                break;
+            case MUL:
+                for (int i = 0; i < size; i++)
+                    result[i] = Math.multiplyExact(left.getLong(i), right.getLong(i));
+                break;
+            default:
+                for (int i = 0; i < size; i++) {
+                    long y = right.getLong(i);
+                    // Rows which are not evaluated may divide by zero
+                    result[i] = opCode == OpCode.DIV && y == 0 ? 0 : MyNumber.arithmetic(opCode, left.getLong(i), y);
+                }
+        }
+        return new Column(result, null, Frame.Kind.INT, scalar, true);
+    }
+
+    /**
+     * Apply an arithmetic instruction on every row of two columns, at least one of them of floats.
+     * @param opCode Arithmetic instruction.
+     * @param left Left operand.
+     * @param right Right operand.
+     * @param size Number of rows to compute.
+     * @param scalar Whether both operands are scalars.
+     * @return Column of the results.
+     */
+    private static Column doubleArithmetic(OpCode opCode, Column left, Column right, int size, boolean scalar) {
+        double[] result = scalar ? new double[1] : doubleResult(size, left, right);
+        switch (opCode) {
+            case ADD:
+                for (int i = 0; i < size; i++)
+                    result[i] = left.getDouble(i) + right.getDouble(i);
+                break;
+            case SUB:
+                for (int i = 0; i < size; i++)
+                    result[i] = left.getDouble(i) - right.getDouble(i);
+                break;
+            case MUL:
+                for (int i = 0; i < size; i++)
+                    result[i] = left.getDouble(i) * right.getDouble(i);
+                break;
+            case DIV:
+                for (int i = 0; i < size; i++)
+                    result[i] = left.getDouble(i) / right.getDouble(i);
+                break;
+            default:
+                for (int i = 0; i < size; i++)
+                    result[i] = Math.pow(left.getDouble(i), right.getDouble(i));
+        }
+        return new Column(null, result, Frame.Kind.FLOAT, scalar, true);
+    }
+
+    /**
+     * Apply a comparison or logical instruction on two integers or booleans.
+     * @param opCode Comparison or logical instruction.
+     * @param x Left operand.
+     * @param y Right operand.
+     * @return Result of the instruction.
+     */
+    private static boolean compare(OpCode opCode, long x, long y) {
+        switch (opCode) {
+            case AND: return x != 0 && y != 0;
+            case OR: return x != 0 || y != 0;
+            default: return MyNumber.compare(opCode, x, y);
+        }
+    }
+
+    /**
+     * Make sure the given column is of booleans.
+     * @param column Given column.
+     * @param node Node of the column, used for its span in errors.
+     * @param batch Batch of the evaluation.
+     * @throws RuntimeError If the column is not of booleans.
+     */
+    public static void requireBoolean(Column column, Node node, Batch batch) throws RuntimeError {
+        if (column.kind != Frame.Kind.BOOLEAN)
+            throw batch.error("Expected a boolean value", node.getStart(), node.getEnd(), batch.firstActiveRow());
+    }
+}
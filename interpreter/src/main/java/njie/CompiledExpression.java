@@ -0,0 +1,18 @@
+package njie;
+
+/**
+ * Interface for an expression compiled into a JVM class by the JIT compiler.
+ * @see JitCompiler
+ * @author Gil-Ad Shay.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+    /**
+     * Evaluate the expression.
+     * @param symbolTable Symbol table of the variables.
+     * @return Result of the expression, without position and context.
+     * @throws JitRuntime.Bailout If the expression can not be evaluated by the compiled code (e.g. a variable changed its kind),
+     *                            so it has to be evaluated by the interpreter.
+     */
+    public MyNumber evaluate(SymbolTable symbolTable);
+}
@@ -0,0 +1,145 @@
+package njie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class for lowering an AST into a chunk of instructions.
+ * Each node emits its own instructions (see Node.compile), this class only collects them.
+ * The tree is walked with an explicit stack, so trees of any depth are compiled without recursion.
+ * @see Chunk
+ * @author Gil-Ad Shay.
+ */
+public class Compiler {
+    private final List<OpCode> opCodes = new ArrayList<>();
+    private final List<Integer> operands = new ArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<MyNumber> constants = new ArrayList<>();
+    // Jumps waiting for the instruction they jump to.
+    private final List<Integer> jumps = new ArrayList<>();
+    private int stackSize;
+    private int maxStack;
+
+    /**
+     * Compile the given tree.
+     * @param node Root of the tree.
+     * @return Chunk which evaluates to the same value as the tree.
+     */
+    public static Chunk compile(Node node) {
+        Compiler compiler = new Compiler();
+        // Nodes being compiled, and the index of the next child of each.
+        Node[] nodes = new Node[16];
+        int[] steps = new int[16];
+        int size = 0;
+        nodes[size] = node;
+        steps[size++] = 0;
+        while (size > 0) {
+            Node top = nodes[size - 1];
+            int step = steps[size - 1]++;
+            top.compile(compiler, step);
+            if (step == top.getChildCount()) {
+                nodes[--size] = null;
+                continue;
+            }
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                steps = Arrays.copyOf(steps, size * 2);
+            }
+            nodes[size] = top.getChild(step);
+            steps[size++] = 0;
+        }
+        return compiler.toChunk();
+    }
+
+    /**
+     * Emit a new instruction.
+     * @param opCode Instruction.
+     * @param operand Operand of the instruction (ignored by instructions without an operand).
+     * @param node The node which generated the instruction, used for its span.
+     * @return Index of the instruction.
+     */
+    public int emit(OpCode opCode, int operand, Node node) {
+        opCodes.add(opCode);
+        operands.add(operand);
+        nodes.add(node);
+
+        stackSize += stackEffect(opCode);
+        maxStack = Math.max(maxStack, stackSize);
+        return opCodes.size() - 1;
+    }
+
+    /**
+     * Emit a new instruction without an operand.
+     * @param opCode Instruction.
+     * @param node The node which generated the instruction, used for its span.
+     * @return Index of the instruction.
+     */
+    public int emit(OpCode opCode, Node node) {
+        return emit(opCode, 0, node);
+    }
+
+    /**
+     * Emit a jump instruction, whose target is set by the matching call to patchJump.
+     * @param opCode Jump instruction.
+     * @param node The node which generated the instruction, used for its span.
+     */
+    public void emitJump(OpCode opCode, Node node) {
+        jumps.add(emit(opCode, node));
+    }
+
+    /**
+     * Make the last jump which was not patched jump to the next emitted instruction.
+     */
+    public void patchJump() {
+        operands.set(jumps.remove(jumps.size() - 1), opCodes.size());
+    }
+
+    /**
+     * Add a constant to the constant pool.
+     * @param constant Given constant.
+     * @return Index of the constant in the pool.
+     */
+    public int addConstant(MyNumber constant) {
+        constants.add(constant);
+        return constants.size() - 1;
+    }
+
+    /**
+     * Get the change in the stack depth caused by an instruction.
+     * @param opCode Instruction.
+     * @return Stack depth after the instruction minus stack depth before it.
+     */
+    private static int stackEffect(OpCode opCode) {
+        switch (opCode) {
+            case CONST:
+            case LOAD:
+                return 1;
+            case STORE:
+            case JUMP_IF_FALSE:
+            case JUMP_IF_TRUE:
+            case NEG:
+            case NOT:
+            case ID:
+                return 0;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Build the chunk out of the emitted instructions.
+     * @return Chunk of the emitted instructions.
+     */
+    private Chunk toChunk() {
+        int[] operandArray = new int[operands.size()];
+        for (int i = 0; i < operandArray.length; i++)
+            operandArray[i] = operands.get(i);
+        return new Chunk(
+            opCodes.toArray(new OpCode[0]),
+            operandArray,
+            nodes.toArray(new Node[0]),
+            constants.toArray(new MyNumber[0]),
+            maxStack);
+    }
+}
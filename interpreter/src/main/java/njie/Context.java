@@ -1,3 +1,5 @@
+package njie;
+
 /**
  * Hold the current context of the program.
  * @author Gil-Ad Shay.
@@ -9,6 +11,9 @@ public class Context {
     private final Position parentEntry;
 
     private final SymbolTable symbolTable;
+    // Values of the shared nodes of the tree being evaluated (see DagNode). null outside of such a tree.
+    private final MyNumber[] sharedValues;
+
     /**
      * Initialize new Context.
      * @param displayName Name for displaying the context.
@@ -20,7 +25,21 @@ public class Context {
         this.parent = parent;
         this.parentEntry = parentEntry;
         this.symbolTable = symbolTable;
-    }   
+        this.sharedValues = null;
+    }
+
+    /**
+     * Initialize a copy of the given context for evaluating a tree with shared nodes.
+     * @param context Given context.
+     * @param sharedValues Values of the shared nodes, null until computed.
+     */
+    public Context(Context context, MyNumber[] sharedValues) {
+        this.displayName = context.displayName;
+        this.parent = context.parent;
+        this.parentEntry = context.parentEntry;
+        this.symbolTable = context.symbolTable;
+        this.sharedValues = sharedValues;
+    }
 
     /**
      * Initialize a new Context with default (null) parent and parentEntry.
@@ -45,4 +64,8 @@ public class Context {
     public SymbolTable getSymbolTable() {
         return symbolTable;
     }
+
+    public MyNumber[] getSharedValues() {
+        return sharedValues;
+    }
 }
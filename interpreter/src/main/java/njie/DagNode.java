@@ -0,0 +1,90 @@
+package njie;
+
+/**
+ * Root of a tree whose identical subtrees are shared (see Optimizer.share), which is a DAG rather than a tree.
+ * Every evaluation gets its own values of the shared nodes, so the same DAG can be evaluated by several threads at once.
+ * @see SharedNode
+ * @author Gil-Ad Shay.
+ */
+public class DagNode extends Node {
+    private final Node root;
+    private final int sharedCount;
+
+    /**
+     * Initialize a new root of a DAG.
+     * @param root Root of the tree with shared nodes.
+     * @param sharedCount Number of shared nodes.
+     */
+    public DagNode(Node root, int sharedCount) {
+        super(root.getStart(), root.getEnd(), root.getDepth() + 1);
+        this.root = root;
+        this.sharedCount = sharedCount;
+    }
+
+    public int getSharedCount() {
+        return sharedCount;
+    }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+
+    @Override
+    public MyNumber visit(Context context) throws RuntimeError {
+        return root.visit(new Context(context, new MyNumber[sharedCount]));
+    }
+
+    @Override
+    public void evaluate(Frame frame) throws RuntimeError {
+        Context context = frame.getContext();
+        frame.setContext(new Context(context, new MyNumber[sharedCount]));
+        try {
+            root.evaluate(frame);
+        } finally {
+            frame.setContext(context);
+        }
+    }
+
+    @Override
+    public Column visit(Batch batch) throws RuntimeError {
+        return root.visit(batch);
+    }
+
+    @Override
+    public int getChildCount() {
+        return 1;
+    }
+
+    @Override
+    public Node getChild(int idx) {
+        if (idx != 0)
+            throw new IndexOutOfBoundsException(idx);
+        return root;
+    }
+
+    @Override
+    public void compile(Compiler compiler, int step) {
+        // The virtual machine evaluates the shared nodes as a tree
+    }
+
+    @Override
+    public Object getOperation() {
+        return null;
+    }
+
+    @Override
+    public Node withChildren(Node[] children) {
+        return new DagNode(children[0], sharedCount);
+    }
+
+    @Override
+    public void write(ScriptImage.Writer writer) {
+        throw new IllegalArgumentException("Shared nodes are not written, as optimized trees are not");
+    }
+
+    @Override
+    public Node fold(Optimizer optimizer) {
+        return this;
+    }
+}
@@ -0,0 +1,316 @@
+package njie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Graph of the variables of a reactive symbol table, and the assignments which define them.
+ * A variable assigned by an expression of other variables keeps that expression as its definition. When a variable
+ * changes, only the definitions which read a variable whose value changed are evaluated again, in topological order,
+ * so recomputing costs in proportion to what changed rather than to the number of definitions.
+ * The variables are kept in a topological order as definitions are added (the dynamic topological sort of Pearce and
+ * Kelly), so checking that a new definition does not make a variable depend on itself only searches the variables
+ * ordered between the variable and what it reads.
+ * @see SymbolTable#setReactive
+ * @author Gil-Ad Shay.
+ */
+public class DependencyGraph {
+    /**
+     * Assignment which defines a variable.
+     */
+    private static class Definition {
+        private final VarAssignNode node;
+        private final Context context;
+        private final int[] reads;
+
+        private Definition(VarAssignNode node, Context context, int[] reads) {
+            this.node = node;
+            this.context = context;
+            this.reads = reads;
+        }
+    }
+
+    private final SymbolTable symbolTable;
+    // Indexed by slot.
+    private Definition[] definitions = new Definition[16];
+    private Set<Integer>[] dependents = newDependents(16);
+    // Error of evaluating the definition of a variable again, which is left undefined.
+    private RuntimeError[] errors = new RuntimeError[16];
+    // Position of every variable in the topological order: a variable comes before its dependents. 0 for a variable
+    // which was neither defined nor read.
+    private int[] ords = new int[16];
+    private int minOrd;
+    private int maxOrd;
+    private long recomputed;
+
+    /**
+     * Initialize an empty graph of the given symbol table.
+     * @param symbolTable Symbol table whose variables are tracked.
+     */
+    public DependencyGraph(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Integer>[] newDependents(int size) {
+        return (Set<Integer>[]) new Set<?>[size];
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot < definitions.length)
+            return;
+        int capacity = Math.max(definitions.length * 2, slot + 1);
+        definitions = Arrays.copyOf(definitions, capacity);
+        dependents = Arrays.copyOf(dependents, capacity);
+        errors = Arrays.copyOf(errors, capacity);
+        ords = Arrays.copyOf(ords, capacity);
+    }
+
+    /**
+     * Set the value of the given variable, and evaluate again the definitions which depend on it.
+     * @param symbol Symbol of the variable.
+     * @param value New value (null for undefined).
+     * @param node Assignment which computed the value, kept as the definition of the variable. null for a variable
+     *             which is set to a value, and is an input of its dependents.
+     * @param context Context of the assignment, which its definition is evaluated in again.
+     */
+    public void set(Symbol symbol, MyNumber value, VarAssignNode node, Context context) {
+        int slot = symbol.getSlot();
+        MyNumber old = symbolTable.get(slot);
+        symbolTable.store(symbol, value);
+        define(slot, node, context);
+        if (!Objects.equals(old, value))
+            changed(slot);
+    }
+
+    /**
+     * Replace the definition of the variable in the given slot.
+     * An assignment which reads the variable it assigns (directly or through other definitions), or which assigns
+     * variables itself, is evaluated once as usual but does not define the variable.
+     * @param slot Slot of the variable.
+     * @param node Assignment defining the variable. null for a variable which is set to a value.
+     * @param context Context of the assignment.
+     */
+    private void define(int slot, VarAssignNode node, Context context) {
+        ensureCapacity(slot);
+        Definition old = definitions[slot];
+        if (old != null)
+            for (int read : old.reads)
+                dependents[read].remove(slot);
+        definitions[slot] = null;
+        errors[slot] = null;
+
+        int[] reads = node != null ? node.getReads() : null;
+        if (reads == null)
+            return;
+        // A variable which nothing depends on can go last, so its reads rarely have to be moved.
+        if (ords[slot] == 0 || (dependentsOf(slot).isEmpty() && ords[slot] != maxOrd))
+            ords[slot] = ++maxOrd;
+        for (int i = 0; i < reads.length; i++) {
+            if (!addDependent(reads[i], slot)) {
+                for (int j = 0; j < i; j++)
+                    dependents[reads[j]].remove(slot);
+                return;
+            }
+        }
+        definitions[slot] = new Definition(node, context, reads);
+    }
+
+    /**
+     * Make the given variable depend on the given read, keeping the topological order.
+     * If the read comes after the variable, the variables ordered between them which depend on the variable, and those
+     * the read depends on, are searched and moved so the read comes first.
+     * @param read Slot of the read.
+     * @param slot Slot of the variable.
+     * @return true if the dependency was added. false if the read is the variable or depends on it.
+     */
+    private boolean addDependent(int read, int slot) {
+        if (read == slot)
+            return false;
+        ensureCapacity(read);
+        // Likewise, a read which does not depend on other variables can go first.
+        if (ords[read] == 0 || (!hasReads(read) && ords[read] > ords[slot]))
+            ords[read] = --minOrd;
+        if (ords[read] > ords[slot]) {
+            List<Integer> forward = search(slot, ords[read], read);
+            if (forward == null)
+                return false;
+            reorder(search(read, ords[slot], -1), forward);
+        }
+        if (dependents[read] == null)
+            dependents[read] = new LinkedHashSet<>();
+        dependents[read].add(slot);
+        return true;
+    }
+
+    /**
+     * Search the variables ordered between the given variable and the given bound, which depend on the variable (for an
+     * upper bound) or which the variable depends on (for a lower bound).
+     * @param from Slot of the variable the search starts from.
+     * @param bound Position in the order which bounds the search.
+     * @param target Slot whose reaching stops the search. -1 for none.
+     * @return The variables found, including the given one. null if the target was reached.
+     */
+    private List<Integer> search(int from, int bound, int target) {
+        boolean forward = bound > ords[from];
+        List<Integer> found = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        List<Integer> stack = new ArrayList<>();
+        visited.add(from);
+        stack.add(from);
+        while (!stack.isEmpty()) {
+            int slot = stack.remove(stack.size() - 1);
+            found.add(slot);
+            Iterable<Integer> next = forward ? dependentsOf(slot) : readsOf(slot);
+            for (int other : next) {
+                if (other == target)
+                    return null;
+                if ((forward ? ords[other] < bound : ords[other] > bound) && visited.add(other))
+                    stack.add(other);
+            }
+        }
+        return found;
+    }
+
+    private boolean hasReads(int slot) {
+        Definition definition = definitions[slot];
+        return definition != null && definition.reads.length > 0;
+    }
+
+    private List<Integer> readsOf(int slot) {
+        Definition definition = definitions[slot];
+        List<Integer> reads = new ArrayList<>();
+        if (definition != null)
+            for (int read : definition.reads)
+                reads.add(read);
+        return reads;
+    }
+
+    /**
+     * Move the given variables to the positions they take in the order, so all of the first come before the second.
+     * @param before Variables which must come first (the read and what it depends on).
+     * @param after Variables which must come last (the variable and its dependents).
+     */
+    private void reorder(List<Integer> before, List<Integer> after) {
+        Comparator<Integer> byOrd = Comparator.comparingInt(slot -> ords[slot]);
+        before.sort(byOrd);
+        after.sort(byOrd);
+        List<Integer> slots = new ArrayList<>(before);
+        slots.addAll(after);
+        int[] positions = new int[slots.size()];
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = ords[slots.get(i)];
+        Arrays.sort(positions);
+        for (int i = 0; i < positions.length; i++)
+            ords[slots.get(i)] = positions[i];
+    }
+
+    private Set<Integer> dependentsOf(int slot) {
+        Set<Integer> result = slot < dependents.length ? dependents[slot] : null;
+        return result != null ? result : Set.of();
+    }
+
+    /**
+     * Evaluate again the definitions which depend on the given variable, after it changed.
+     * The definitions are taken in topological order from a queue, to which only the dependents of a variable whose
+     * value changed are added, so a definition is evaluated only if a variable it reads changed its value, and a
+     * dependent of a definition which kept its value is not even visited. A definition which fails leaves its variable
+     * undefined, and reading the variable throws the error (see getError).
+     * @param slot Slot of the changed variable.
+     */
+    private void changed(int slot) {
+        if (dependentsOf(slot).isEmpty())
+            return;
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.comparingInt(dependent -> ords[dependent]));
+        Set<Integer> queued = new HashSet<>(dependentsOf(slot));
+        queue.addAll(queued);
+        while (!queue.isEmpty()) {
+            int dependent = queue.poll();
+            Definition definition = definitions[dependent];
+            MyNumber value;
+            try {
+                value = evaluate(definition.node.getChild(0), definition.context);
+                errors[dependent] = null;
+            } catch (RuntimeError e) {
+                value = null;
+                errors[dependent] = e;
+            }
+            recomputed++;
+            if (!Objects.equals(symbolTable.get(dependent), value)) {
+                symbolTable.store(definition.node.getSymbol(), value);
+                for (int next : dependentsOf(dependent))
+                    if (queued.add(next))
+                        queue.add(next);
+            }
+        }
+    }
+
+    /**
+     * Evaluate the value of a definition.
+     * The primitive engine evaluates on a frame of the thread, which is still in use by the assignment being made, so
+     * the value is visited as by the tree walker instead.
+     * @param node Value of the definition.
+     * @param context Context of the definition.
+     * @return Value of the definition.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    private static MyNumber evaluate(Node node, Context context) throws RuntimeError {
+        if (Interpreter.getEngine() == Interpreter.Engine.PRIMITIVE && node.getDepth() <= Interpreter.MAX_RECURSION_DEPTH)
+            return node.visit(context);
+        return Interpreter.visit(node, context);
+    }
+
+    /**
+     * Restore the definition of the variable in the given slot, whose value is already stored (see Snapshot).
+     * Neither the definition nor its dependents are evaluated, unless the definition had failed, in which case it is
+     * evaluated again to restore its error.
+     * @param slot Slot of the variable.
+     * @param node Assignment defining the variable.
+     * @param context Context of the assignment.
+     * @param failed Whether evaluating the definition again had failed, leaving the variable undefined.
+     */
+    void restore(int slot, VarAssignNode node, Context context, boolean failed) {
+        define(slot, node, context);
+        if (!failed || definitions[slot] == null)
+            return;
+        try {
+            evaluate(node.getChild(0), context);
+        } catch (RuntimeError e) {
+            errors[slot] = e;
+        }
+    }
+
+    /**
+     * Get the assignment which defines the variable in the given slot.
+     * @param slot Slot of the variable.
+     * @return Assignment defining the variable. null if it is set to a value.
+     */
+    public VarAssignNode getDefinition(int slot) {
+        Definition definition = slot < definitions.length ? definitions[slot] : null;
+        return definition != null ? definition.node : null;
+    }
+
+    /**
+     * Get the error of evaluating again the definition of the given variable.
+     * @param slot Slot of the variable.
+     * @return Error which left the variable undefined. null if there is none.
+     */
+    public RuntimeError getError(int slot) {
+        return slot < errors.length ? errors[slot] : null;
+    }
+
+    /**
+     * Get the number of definitions evaluated again since this graph was created.
+     * @return Number of evaluations.
+     */
+    public long getRecomputed() {
+        return recomputed;
+    }
+}
@@ -1,5 +1,9 @@
+package njie;
+
 /**
  * Superclass for all errors.
+ * Errors are thrown for every bad input, so they do not fill in a stack trace, and their message (with the arrows and
+ * the traceback) is only formatted when toString is called.
  * @see Throwable
  * @author Gil-Ad Shay 
  */
@@ -8,6 +12,8 @@ public class Error extends Throwable {
     private final String details;
     private final Position start;
     private final Position end;
+    // Formatted message, once toString is called.
+    private String formatted;
 
     /**
      * Initialize a new Error with the given name and given details.
@@ -17,6 +23,7 @@ public class Error extends Throwable {
      * @param end Ending position.
      */
     public Error(String name, String details, Position start, Position end) {
+        super(null, null, false, false);
         this.name = name;
         this.details = details;
         this.start = start;
@@ -27,6 +34,10 @@ public class Error extends Throwable {
         return start;
     }
 
+    public Position getEnd() {
+        return end;
+    }
+
     public String getName() {
         return name;
     }
@@ -37,6 +48,16 @@ public class Error extends Throwable {
 
     @Override
     public String toString() {
+        if (formatted == null)
+            formatted = format();
+        return formatted;
+    }
+
+    /**
+     * Format the message of the error.
+     * @return Message of the error, with arrows under its span.
+     */
+    protected String format() {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("%s: %s\n", name, details));
         sb.append(String.format(" > File %s, line %d", start.getFN(), start.getLN() + 1));
@@ -52,19 +73,27 @@ public class Error extends Throwable {
         StringBuilder result = new StringBuilder();
 
         // Calculate indices
-        int startIndex = Math.max(start.getText().indexOf('\n', start.getIdx()), 0);
-        int endIndex = details.indexOf('\n', startIndex + 1);
-        endIndex = endIndex < 0 ? start.getText().length() : endIndex;
+        String text = start.getText();
+        int startIndex = text.lastIndexOf('\n', start.getIdx() - 1) + 1;
 
-        // Generate each line
-        int lineCounter = end.getLN() - start.getLN() + 1;
-        for (int i = 0; i < lineCounter; i++) {
+        // Generate each line (a span can only cross lines within the same text)
+        int lineCounter = end.getSource() == start.getSource() ? end.getLN() - start.getLN() + 1 : 1;
+        // A span ending with a newline (e.g. an unexpected NEWLINE token) ends at column 0 of the next line. It ends on
+        // the line of the newline instead, with a caret under the newline, as a span ending with the input does.
+        boolean endsWithNewline = lineCounter > 1 && end.getCol() == 0;
+        if (endsWithNewline)
+            lineCounter--;
+        for (int i = 0; i < lineCounter && startIndex <= text.length(); i++) {
             // Calculate line columns
-            String line = start.getText().substring(startIndex, endIndex);
+            int endIndex = text.indexOf('\n', startIndex);
+            endIndex = endIndex < 0 ? text.length() : endIndex;
+            String line = text.substring(startIndex, endIndex);
             int startCol = i == 0 ? start.getCol() : 0;
-            int endCol = i == lineCounter - 1 ? end.getCol() : line.length() - 1;
+            int endCol = i < lineCounter - 1 ? line.length() : endsWithNewline ? line.length() + 1 : end.getCol();
 
             // Append to result
+            if (i > 0)
+                result.append('\n');
             result.append(line + '\n');
             for (int j = 0; j < startCol; j ++)
                 result.append(' ');
@@ -72,9 +101,7 @@ public class Error extends Throwable {
                 result.append('^');
 
             // Recalculate indices
-            startIndex = endIndex;
-            endIndex = start.getText().indexOf('\n', startIndex + 1);
-            endIndex = endIndex < 0 ? details.length() : endIndex;
+            startIndex = endIndex + 1;
         }
         return result.toString().replace('\t', '\0');
     }
@@ -1,3 +1,5 @@
+package njie;
+
 /**
  * Class for expected characters.
  * @author Gil-Ad Shay.
@@ -0,0 +1,108 @@
+package njie;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of parsed expressions, keyed by their source text.
+ * When the cache is full, the least recently used expression is evicted.
+ * With an optimizer, a tree is optimized once when it is parsed and cached optimized, so every hit visits the same tree
+ * (and the JIT profile kept on it, see JitCompiler).
+ * Trees are never changed by visiting them, so a cached tree can be visited any number of times, in any context and by
+ * several threads at once.
+ * @author Gil-Ad Shay.
+ */
+public class ExpressionCache {
+    private final String fileName;
+    private final Optimizer optimizer;
+    private final Map<String, Node> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Initialize a new expression cache.
+     * @param fileName Name of the file of the expressions, for tracking errors.
+     * @param capacity Maximal number of cached expressions.
+     */
+    public ExpressionCache(String fileName, int capacity) {
+        this(fileName, capacity, null);
+    }
+
+    /**
+     * Initialize a new expression cache of optimized trees.
+     * @param fileName Name of the file of the expressions, for tracking errors.
+     * @param capacity Maximal number of cached expressions.
+     * @param optimizer Optimizer of the parsed trees. null to cache them as parsed.
+     */
+    public ExpressionCache(String fileName, int capacity, Optimizer optimizer) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        this.fileName = fileName;
+        this.optimizer = optimizer;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+                if (size() <= capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get the tree of the given expression, lexing, parsing and optimizing it only if it is not cached.
+     * Expressions with errors are not cached, so the error is thrown again for every call.
+     * @param text Source text of the expression.
+     * @return Root of the tree.
+     * @throws Error In case of an illegal character or invalid syntax.
+     */
+    public Node parse(String text) throws Error {
+        synchronized (this) {
+            Node node = entries.get(text);
+            if (node != null) {
+                hits++;
+                return node;
+            }
+            misses++;
+        }
+
+        // Parse outside of the lock, so a slow expression does not block the others.
+        Node node = new Parser(new Lexer(fileName, text).makeTokens()).parse();
+        if (optimizer != null)
+            node = optimizer.optimize(node);
+        synchronized (this) {
+            Node cached = entries.putIfAbsent(text, node);
+            return cached != null ? cached : node;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Remove all cached expressions. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("size: %d, hits: %d, misses: %d, evictions: %d", entries.size(), hits, misses, evictions);
+    }
+}
@@ -0,0 +1,302 @@
+package njie;
+
+import java.util.Arrays;
+
+/**
+ * Operand stack of unboxed values for evaluating a tree without allocating a number per node.
+ * A frame is reset and reused for every evaluation, so evaluating a tree allocates nothing once the stack is large enough.
+ * @see Node#evaluate(Frame)
+ * @author Gil-Ad Shay.
+ */
+public class Frame {
+    /**
+     * Kinds of values on the stack.
+     */
+    enum Kind {
+        INT,
+        FLOAT,
+        BOOLEAN,
+        // Integer which does not fit a long
+        BIG
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Integers and booleans (1 or 0) are longs, floats are doubles, and integers which do not fit a long are numbers.
+    private long[] longs = new long[INITIAL_CAPACITY];
+    private double[] doubles = new double[INITIAL_CAPACITY];
+    private MyNumber[] bigs = new MyNumber[INITIAL_CAPACITY];
+    private Kind[] kinds = new Kind[INITIAL_CAPACITY];
+    private int size;
+    private Context context;
+
+    /**
+     * Empty the stack and set the context of the next evaluation.
+     * @param context Context of the program for tracking errors.
+     */
+    public void reset(Context context) {
+        this.size = 0;
+        this.context = context;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public void setContext(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Make room for one more value.
+     * @return Index of the new value.
+     */
+    private int grow() {
+        if (size == kinds.length) {
+            longs = Arrays.copyOf(longs, size * 2);
+            doubles = Arrays.copyOf(doubles, size * 2);
+            bigs = Arrays.copyOf(bigs, size * 2);
+            kinds = Arrays.copyOf(kinds, size * 2);
+        }
+        return size++;
+    }
+
+    public void pushInt(long value) {
+        setInt(grow(), value);
+    }
+
+    public void pushFloat(double value) {
+        setFloat(grow(), value);
+    }
+
+    public void pushBoolean(boolean value) {
+        setBoolean(grow(), value);
+    }
+
+    /**
+     * Push the value of the given number.
+     * @param number Given number.
+     */
+    public void push(MyNumber number) {
+        if (number instanceof MyBoolean)
+            pushBoolean(((MyBoolean) number).getBooleanValue());
+        else if (!number.isInteger())
+            pushFloat(number.getValue());
+        else if (!number.isBig())
+            pushInt(number.getLongValue());
+        else
+            setNumber(grow(), number);
+    }
+
+    /**
+     * Get the kind of the value on top of the stack.
+     * @return Kind of the value on top of the stack.
+     */
+    public Kind peekKind() {
+        return kinds[size - 1];
+    }
+
+    /**
+     * Pop the value on top of the stack.
+     * @return Value on top of the stack, as a double.
+     */
+    public double pop() {
+        return getDouble(--size);
+    }
+
+    /**
+     * Get the value at the given index as a double.
+     * @param idx Index in the stack.
+     * @return Value at the index.
+     */
+    private double getDouble(int idx) {
+        switch (kinds[idx]) {
+            case FLOAT: return doubles[idx];
+            case BIG: return bigs[idx].getValue();
+            default: return longs[idx];
+        }
+    }
+
+    /**
+     * Create a number out of the value at the given index.
+     * @param idx Index in the stack.
+     * @return Number with the value at the index.
+     */
+    private MyNumber getNumber(int idx) {
+        switch (kinds[idx]) {
+            case INT: return MyNumber.of(longs[idx]);
+            case FLOAT: return MyNumber.of(doubles[idx]);
+            case BIG: return bigs[idx];
+            default: return MyBoolean.valueOf(longs[idx] != 0);
+        }
+    }
+
+    /**
+     * Create a number out of the value on top of the stack, without popping it.
+     * @return Number with the value on top of the stack.
+     */
+    public MyNumber peekNumber() {
+        return getNumber(size - 1);
+    }
+
+    /**
+     * Pop the value on top of the stack into a number.
+     * @return Number with the value on top of the stack.
+     */
+    public MyNumber popNumber() {
+        MyNumber number = peekNumber();
+        size--;
+        return number;
+    }
+
+    /**
+     * Apply a unary instruction on the value on top of the stack.
+     * @param opCode Unary instruction (NEG, NOT or ID).
+     * @param operand Node of the operand, used for its span in errors.
+     * @throws RuntimeError If NOT is applied on a value which is not a boolean.
+     */
+    public void unaryOperation(OpCode opCode, Node operand) throws RuntimeError {
+        int top = size - 1;
+        switch (opCode) {
+            case NEG:
+                if (kinds[top] == Kind.FLOAT)
+                    doubles[top] = -doubles[top];
+                else if (kinds[top] != Kind.BIG && longs[top] != Long.MIN_VALUE)
+                    setInt(top, -longs[top]);
+                else
+                    setNumber(top, getNumber(top).neg());
+                break;
+            case NOT:
+                requireBoolean(top, operand);
+                longs[top] = longs[top] != 0 ? 0 : 1;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Check whether the value on top of the stack decides the result of a logical instruction, so its right operand is skipped.
+     * The value is left on the stack, as it is the result if it decides it.
+     * @param opCode Logical instruction (AND or OR).
+     * @param left Node of the left operand, used for its span in errors.
+     * @return true if the value decides the result (FALSE for AND, TRUE for OR).
+     * @throws RuntimeError If the value is not a boolean.
+     */
+    public boolean shortCircuits(OpCode opCode, Node left) throws RuntimeError {
+        requireBoolean(size - 1, left);
+        return (longs[size - 1] != 0) == (opCode == OpCode.OR);
+    }
+
+    /**
+     * Apply a binary instruction on the two values on top of the stack, replacing them with the result.
+     * Follows the rules of MyNumber: integers are computed on longs, and on BigIntegers once they overflow.
+     * @param opCode Binary instruction.
+     * @param left Node of the left operand, used for its span in errors.
+     * @param right Node of the right operand, used for its span in errors.
+     * @throws RuntimeError In case of division by zero, a power which is too large, or a logical operation on a value which is not a boolean.
+     */
+    public void binaryOperation(OpCode opCode, Node left, Node right) throws RuntimeError {
+        int y = --size;
+        int x = size - 1;
+        Kind xKind = kinds[x];
+        Kind yKind = kinds[y];
+
+        if (opCode == OpCode.AND || opCode == OpCode.OR) {
+            requireBoolean(x, left);
+            if (yKind != Kind.BOOLEAN)
+                throw new RuntimeError("Expected a boolean value", right.getStart(), right.getEnd(), context);
+            setBoolean(x, opCode == OpCode.AND ? longs[x] != 0 && longs[y] != 0 : longs[x] != 0 || longs[y] != 0);
+            return;
+        }
+        if (opCode == OpCode.DIV && (yKind == Kind.FLOAT ? doubles[y] == 0 : yKind != Kind.BIG && longs[y] == 0))
+            throw new RuntimeError("Division by zero", right.getStart(), right.getEnd(), context);
+
+        // Comparisons come after the arithmetic instructions
+        boolean isComparison = opCode.compareTo(OpCode.EQ) >= 0;
+        if (xKind == Kind.FLOAT || yKind == Kind.FLOAT) {
+            double a = getDouble(x);
+            double b = getDouble(y);
+            if (isComparison)
+                setBoolean(x, MyNumber.compare(opCode, a, b));
+            else
+                setFloat(x, MyNumber.arithmetic(opCode, a, b));
+        } else if (xKind != Kind.BIG && yKind != Kind.BIG) {
+            if (isComparison) {
+                setBoolean(x, MyNumber.compare(opCode, longs[x], longs[y]));
+                return;
+            }
+            try {
+                setInt(x, MyNumber.arithmetic(opCode, longs[x], longs[y]));
+            } catch (ArithmeticException e) {
+                // Overflowed a long, so it is computed again on BigIntegers
+                applyNumbers(opCode, x, y, right);
+            }
+        } else {
+            applyNumbers(opCode, x, y, right);
+        }
+    }
+
+    /**
+     * Apply a binary instruction on the numbers of the given values, for integers which do not fit a long.
+     * @param opCode Binary instruction.
+     * @param x Index of the left operand, which receives the result.
+     * @param y Index of the right operand.
+     * @param right Node of the right operand, used for its span in errors.
+     * @throws RuntimeError If the result of a power is too large.
+     */
+    private void applyNumbers(OpCode opCode, int x, int y, Node right) throws RuntimeError {
+        MyNumber result;
+        try {
+            result = getNumber(x).apply(opCode, getNumber(y));
+        } catch (ArithmeticException e) {
+            throw new RuntimeError(e.getMessage(), right.getStart(), right.getEnd(), context);
+        }
+        if (result instanceof MyBoolean)
+            setBoolean(x, ((MyBoolean) result).getBooleanValue());
+        else if (result.isBig())
+            setNumber(x, result);
+        else
+            setInt(x, result.getLongValue());
+    }
+
+    private void setInt(int idx, long value) {
+        longs[idx] = value;
+        kinds[idx] = Kind.INT;
+    }
+
+    private void setFloat(int idx, double value) {
+        doubles[idx] = value;
+        kinds[idx] = Kind.FLOAT;
+    }
+
+    private void setBoolean(int idx, boolean value) {
+        longs[idx] = value ? 1 : 0;
+        kinds[idx] = Kind.BOOLEAN;
+    }
+
+    /**
+     * Set the value at the given index to an integer, which is kept as a number if it does not fit a long.
+     * @param idx Index in the stack.
+     * @param number Integer.
+     */
+    private void setNumber(int idx, MyNumber number) {
+        if (number.isBig()) {
+            bigs[idx] = number;
+            kinds[idx] = Kind.BIG;
+        } else {
+            setInt(idx, number.getLongValue());
+        }
+    }
+
+    /**
+     * Make sure the value at the given index is a boolean.
+     * @param idx Index in the stack.
+     * @param node Node of the value, used for its span in errors.
+     * @throws RuntimeError If the value is not a boolean.
+     */
+    private void requireBoolean(int idx, Node node) throws RuntimeError {
+        if (kinds[idx] != Kind.BOOLEAN)
+            throw new RuntimeError("Expected a boolean value", node.getStart(), node.getEnd(), context);
+    }
+}
@@ -0,0 +1,63 @@
+package njie;
+
+/**
+ * Class for identifier token.
+ * @author Gil-Ad Shay.
+ */
+public class IdentifierToken extends Token {
+
+    private final String name;
+
+    /**
+     * Initialize new identifier token.
+     * @param name Name of the identifier.
+     * @param source Source of the token.
+     * @param start Starting offset.
+     */
+    public IdentifierToken(String name, Source source, int start) {
+        super(Token.Type.IDENTIFIER, source, start);
+        this.name = name;
+    }
+
+    /**
+     * Initialize new identifier token.
+     * @param name Name of the identifier.
+     * @param source Source of the token.
+     * @param start Starting offset.
+     * @param end Ending offset.
+     */
+    public IdentifierToken(String name, Source source, int start, int end) {
+        super(Token.Type.IDENTIFIER, source, start, end);
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public IdentifierToken intern() {
+        return Interner.intern(this, token -> new IdentifierToken(token.name, null, -1, -1));
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Identifier:%s", name);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return super.equals(obj) && name.equals(((IdentifierToken) obj).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + name.hashCode();
+    }
+}
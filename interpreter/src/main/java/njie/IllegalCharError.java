@@ -1,3 +1,5 @@
+package njie;
+
 /**
  * Class for throwing illegal character error.
  * @author Gil-Ad Shay.
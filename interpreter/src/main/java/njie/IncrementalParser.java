@@ -0,0 +1,381 @@
+package njie;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Front end of a script which is edited in place, such as the buffer of an editor.
+ * A statement never crosses a line (see grammar.md), so the script is kept line by line, and every line is a source of
+ * its own with its tokens and tree, as when a file is lexed line by line. An edit only lexes and parses the lines it
+ * touches again, and the other lines keep their tokens and trees.
+ * The lines are kept in a treap (a randomized balanced tree) ordered by their place in the script, where every subtree
+ * knows its number of lines and characters. Finding the line of an offset, and inserting or removing lines, take a
+ * logarithmic time, and a line computes its line number from its place in the tree, so lines after an edit are moved
+ * without touching them.
+ * @author Gil-Ad Shay.
+ */
+public class IncrementalParser {
+    private static final Random RANDOM = new Random();
+
+    /**
+     * A line of the script (including its '\n'), lexed and parsed, and a node of the treap.
+     */
+    private static class Line extends Source {
+        private final int priority = RANDOM.nextInt();
+        private Line left;
+        private Line right;
+        private Line parent;
+        // Number of lines, characters and lines with errors in the subtree of this line.
+        private int size;
+        private int length;
+        private int errorCount;
+
+        // Tokens of the line, without the EOF. null if lexing the line failed.
+        private List<Token> tokens;
+        // Tree of the statement of the line. null for a blank line, or a line with an error.
+        private Node node;
+        private Error error;
+        // Line number when the line was parsed, which the message of its error shows once formatted.
+        private int parsedLine;
+
+        private Line(String fn, String text, int line) {
+            super(fn, text);
+            parse(line);
+            update(this);
+        }
+
+        /**
+         * Lex and parse this line.
+         * Tokens are pulled by the parser as a file is (see Main.runFile), so the first error is the same.
+         * @param line Current line number of this line.
+         */
+        private void parse(int line) {
+            Lexer lexer = new Lexer(this);
+            List<Token> tokens = new ArrayList<>();
+            TokenStream stream = () -> {
+                Token token = lexer.next();
+                tokens.add(token);
+                return token;
+            };
+            node = null;
+            error = null;
+            parsedLine = line;
+            try {
+                node = new Parser(stream).parseStatement();
+            } catch (Error e) {
+                error = e;
+            }
+
+            // Lex the rest of the line, so the tokens of a line with a syntax error are kept too
+            boolean isLexed = error == null || error instanceof InvalidSyntaxError;
+            try {
+                while (isLexed && tokens.get(tokens.size() - 1).getType() != Token.Type.EOF)
+                    stream.next();
+            } catch (Error e) {
+                isLexed = false;
+            }
+            if (isLexed)
+                tokens.remove(tokens.size() - 1);
+            this.tokens = isLexed ? tokens : null;
+        }
+
+        /**
+         * Get the line number of this line from its place in the tree.
+         * @return Index of this line in the script.
+         */
+        @Override
+        public int getFirstLine() {
+            int line = size(left);
+            for (Line child = this; child.parent != null; child = child.parent)
+                if (child == child.parent.right)
+                    line += size(child.parent.left) + 1;
+            return line;
+        }
+
+        /**
+         * Get the offset in the script where this line starts.
+         * @return Number of characters before this line.
+         */
+        private int getOffset() {
+            int offset = length(left);
+            for (Line child = this; child.parent != null; child = child.parent)
+                if (child == child.parent.right)
+                    offset += length(child.parent.left) + child.parent.getText().length();
+            return offset;
+        }
+    }
+
+    private final String fn;
+    // Root of the treap. Every line ends with a '\n', except the last one (which may be empty).
+    private Line root;
+
+    private final List<Node> statements = new AbstractList<>() {
+        @Override
+        public Node get(int idx) {
+            if (idx < 0 || idx >= IncrementalParser.size(root))
+                throw new IndexOutOfBoundsException(idx);
+            return select(idx).node;
+        }
+
+        @Override
+        public int size() {
+            return IncrementalParser.size(root);
+        }
+    };
+
+    /**
+     * Initialize a new incremental parser, lexing and parsing the whole text.
+     * @param fn File name.
+     * @param text Text of the script.
+     */
+    public IncrementalParser(String fn, String text) {
+        this.fn = fn;
+        root = build(text, 0, true);
+    }
+
+    private static int size(Line line) {
+        return line == null ? 0 : line.size;
+    }
+
+    private static int length(Line line) {
+        return line == null ? 0 : line.length;
+    }
+
+    private static int errorCount(Line line) {
+        return line == null ? 0 : line.errorCount;
+    }
+
+    /**
+     * Compute the counts of the subtree of the given line from its children, and make it their parent.
+     * @param line Given line.
+     * @return The given line.
+     */
+    private static Line update(Line line) {
+        line.size = size(line.left) + 1 + size(line.right);
+        line.length = length(line.left) + line.getText().length() + length(line.right);
+        line.errorCount = errorCount(line.left) + (line.error != null ? 1 : 0) + errorCount(line.right);
+        if (line.left != null)
+            line.left.parent = line;
+        if (line.right != null)
+            line.right.parent = line;
+        return line;
+    }
+
+    /**
+     * Concatenate two treaps.
+     * @param first Lines which come first.
+     * @param second Lines which come after them.
+     * @return Root of the lines of both.
+     */
+    private static Line merge(Line first, Line second) {
+        if (first == null || second == null)
+            return first != null ? first : second;
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            return update(first);
+        }
+        second.left = merge(first, second.left);
+        return update(second);
+    }
+
+    /**
+     * Split a treap after the given number of lines.
+     * @param line Root of the treap.
+     * @param count Number of lines of the first part.
+     * @return Roots of the first count lines and of the rest of the lines.
+     */
+    private static Line[] split(Line line, int count) {
+        if (line == null)
+            return new Line[2];
+        Line[] parts;
+        if (size(line.left) >= count) {
+            parts = split(line.left, count);
+            line.left = parts[1];
+            parts[1] = update(line);
+        } else {
+            parts = split(line.right, count - size(line.left) - 1);
+            line.right = parts[0];
+            parts[0] = update(line);
+        }
+        for (Line part : parts)
+            if (part != null)
+                part.parent = null;
+        return parts;
+    }
+
+    /**
+     * Get the line at the given index.
+     * @param idx Index of the line.
+     * @return Line at the index.
+     */
+    private Line select(int idx) {
+        Line line = root;
+        while (idx != size(line.left)) {
+            if (idx < size(line.left)) {
+                line = line.left;
+            } else {
+                idx -= size(line.left) + 1;
+                line = line.right;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Get the line of the given offset.
+     * @param offset Offset in the script.
+     * @return Line containing the offset (the last line for the end of the script).
+     */
+    private Line lineAt(int offset) {
+        Line line = root;
+        while (true) {
+            if (offset < length(line.left)) {
+                line = line.left;
+                continue;
+            }
+            offset -= length(line.left);
+            if (offset < line.getText().length() || line.right == null)
+                return line;
+            offset -= line.getText().length();
+            line = line.right;
+        }
+    }
+
+    /**
+     * Split the given text into lines, and lex and parse each of them.
+     * @param text Given text.
+     * @param firstLine Line of the script where the text starts.
+     * @param isLast Whether the text ends the script, so what follows its last '\n' is a line too.
+     * @return Root of the lines of the text.
+     */
+    private Line build(String text, int firstLine, boolean isLast) {
+        Line result = null;
+        int line = firstLine;
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+            result = merge(result, new Line(fn, text.substring(start, end + 1), line++));
+            start = end + 1;
+        }
+        if (isLast)
+            result = merge(result, new Line(fn, text.substring(start), line));
+        return result;
+    }
+
+    /**
+     * Replace a range of the script with the given text, lexing and parsing only the lines the range touches.
+     * The edit is applied even if it leaves an error.
+     * @param offset Offset of the range.
+     * @param removed Length of the range.
+     * @param inserted Text inserted instead of the range.
+     * @return Result with the statements of the edited script (see getStatements), or with its first error.
+     */
+    public Result<List<Node>> edit(int offset, int removed, String inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > length())
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of a script of length %d", offset, offset + removed, length()));
+
+        Line firstLine = lineAt(offset);
+        Line lastLine = lineAt(offset + removed);
+        int first = firstLine.getFirstLine();
+        int last = lastLine.getFirstLine();
+        String prefix = firstLine.getText().substring(0, offset - firstLine.getOffset());
+        String suffix = lastLine.getText().substring(offset + removed - lastLine.getOffset());
+        Line replaced = build(prefix + inserted + suffix, first, last == size(root) - 1);
+
+        Line[] before = split(root, first);
+        Line[] after = split(before[1], last - first + 1);
+        root = merge(merge(before[0], replaced), after[1]);
+        root.parent = null;
+        return getResult();
+    }
+
+    /**
+     * Get the tree of every line of the script.
+     * The list is a view, which follows the edits of the script.
+     * @return Tree of the statement of every line. null for blank lines and lines with errors.
+     */
+    public List<Node> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Get the statements of the script, or its first error.
+     * @return Result with the statements (see getStatements), or with the error of the first line which has one.
+     */
+    public Result<List<Node>> getResult() {
+        if (errorCount(root) == 0)
+            return Result.success(statements);
+
+        Line line = root;
+        while (true) {
+            if (errorCount(line.left) > 0)
+                line = line.left;
+            else if (line.error == null)
+                line = line.right;
+            else
+                break;
+        }
+        // The message of an error is kept once formatted, so the line is parsed again if it moved since
+        int lineNumber = line.getFirstLine();
+        if (line.parsedLine != lineNumber)
+            line.parse(lineNumber);
+        return Result.failure(line.error);
+    }
+
+    /**
+     * Get the tokens of the whole script.
+     * @return List of tokens, ending with EOF.
+     * @throws Error The illegal or expected character error of the first line which has one.
+     */
+    public List<Token> getTokens() throws Error {
+        List<Line> lines = lines();
+        List<Token> tokens = new ArrayList<>();
+        for (Line line : lines) {
+            // Lexing the line again throws its error
+            if (line.tokens == null)
+                new Lexer(line).makeTokens();
+            tokens.addAll(line.tokens);
+        }
+        Line end = lines.get(lines.size() - 1);
+        tokens.add(new Token(Token.Type.EOF, end, end.getText().length()));
+        return tokens;
+    }
+
+    /**
+     * Get the lines of the script in order.
+     * @return List of all the lines.
+     */
+    private List<Line> lines() {
+        List<Line> lines = new ArrayList<>(size(root));
+        List<Line> stack = new ArrayList<>();
+        Line line = root;
+        while (line != null || !stack.isEmpty()) {
+            for (; line != null; line = line.left)
+                stack.add(line);
+            line = stack.remove(stack.size() - 1);
+            lines.add(line);
+            line = line.right;
+        }
+        return lines;
+    }
+
+    public int getLineCount() {
+        return size(root);
+    }
+
+    public int length() {
+        return length(root);
+    }
+
+    /**
+     * Get the text of the script.
+     * @return Text of all the lines.
+     */
+    public String getText() {
+        StringBuilder sb = new StringBuilder(length());
+        for (Line line : lines())
+            sb.append(line.getText());
+        return sb.toString();
+    }
+}
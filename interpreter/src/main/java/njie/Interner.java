@@ -0,0 +1,92 @@
+package njie;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Global store of shared immutable values, such as the tokens of identifiers and literals kept by nodes.
+ * Equal values interned by many trees are stored once. Entries are held weakly, so a value no tree uses any longer is
+ * collected, and its entry is removed by the next call. Interning takes no lock, so parsing on many threads does not
+ * contend on the store.
+ * @author Gil-Ad Shay.
+ */
+public class Interner {
+    private static final Map<Entry, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Object> UNUSED = new ReferenceQueue<>();
+
+    /**
+     * Weak reference to a value, equal to the entries of equal values.
+     * An entry whose value was collected is only equal to itself, so it can still be removed.
+     */
+    private static final class Entry extends WeakReference<Object> {
+        private final int hash;
+
+        Entry(Object value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Entry))
+                return false;
+            Object value = get();
+            return value != null && value.equals(((Entry) o).get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Get the shared value equal to the given value, storing a copy of it if there is none.
+     * @param value Given value.
+     * @param copy Create the copy which is stored, such as a token without a position, out of the given value.
+     * @param <T> Type of the value.
+     * @return Shared value equal to the given value.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T intern(T value, UnaryOperator<T> copy) {
+        removeUnused();
+        Entry entry = ENTRIES.get(new Entry(value, null));
+        Object shared = entry != null ? entry.get() : null;
+        if (shared != null)
+            return (T) shared;
+        T stored = copy.apply(value);
+        Entry created = new Entry(stored, UNUSED);
+        while (true) {
+            entry = ENTRIES.putIfAbsent(created, created);
+            if (entry == null)
+                return stored;
+            shared = entry.get();
+            if (shared != null)
+                return (T) shared;
+            // The value of the entry found was collected meanwhile, and the entry no longer matches.
+        }
+    }
+
+    /**
+     * Remove the entries whose values were collected.
+     */
+    private static void removeUnused() {
+        for (Reference<?> entry = UNUSED.poll(); entry != null; entry = UNUSED.poll())
+            ENTRIES.remove(entry);
+    }
+
+    /**
+     * Get the number of values in the store, including values which are no longer used but not yet collected.
+     * @return Number of values.
+     */
+    public static int size() {
+        removeUnused();
+        return ENTRIES.size();
+    }
+}
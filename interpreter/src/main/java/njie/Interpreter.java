@@ -0,0 +1,94 @@
+package njie;
+
+/**
+ * Interpreter class for getting the result out of parsing.
+ * @author Gil-Ad Shay.
+ */
+public class Interpreter {
+    /**
+     * Ways of evaluating a tree.
+     */
+    public enum Engine {
+        // Recursively visit the nodes of the tree.
+        TREE_WALKER,
+        // Compile the tree into a chunk and run it on the virtual machine.
+        VIRTUAL_MACHINE,
+        // Evaluate the tree on unboxed values, allocating only the final result.
+        PRIMITIVE,
+        // Recursively visit the nodes of the tree, and compile it into a JVM class once it is hot.
+        JIT
+    }
+
+    // Deepest tree which is visited recursively. Deeper trees run on the virtual machine, which does not use the Java stack.
+    // Small enough for threads with a stack of 256 KB.
+    public static final int MAX_RECURSION_DEPTH = 500;
+
+    private static final ThreadLocal<Frame> FRAMES = ThreadLocal.withInitial(Frame::new);
+    private static volatile Engine engine = Engine.TREE_WALKER;
+
+    public static Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Set the engine used for visiting trees.
+     * @param engine New engine.
+     */
+    public static void setEngine(Engine engine) {
+        Interpreter.engine = engine;
+    }
+
+    /**
+     * Visit the given node and return its result.
+     * @param node Given node to visit all its node and calculate its value.
+     * @param context Context of the program for tracking errors.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    public static MyNumber visit(Node node, Context context) throws RuntimeError {
+        if (engine == Engine.VIRTUAL_MACHINE || node.getDepth() > MAX_RECURSION_DEPTH)
+            return visit(node.getChunk(), context);
+        if (engine == Engine.PRIMITIVE)
+            return evaluate(node, context).popNumber();
+        if (engine == Engine.JIT)
+            return JitCompiler.visit(node, context);
+        return node.visit(context);
+    }
+
+    /**
+     * Visit the given node and return its result as a primitive value, without allocating any number.
+     * Booleans are returned as 1 (TRUE) or 0 (FALSE), and integers are rounded to the nearest double.
+     * @param node Given node to visit all its node and calculate its value.
+     * @param context Context of the program for tracking errors.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    public static double visitDouble(Node node, Context context) throws RuntimeError {
+        if (node.getDepth() > MAX_RECURSION_DEPTH)
+            return visit(node.getChunk(), context).getValue();
+        return evaluate(node, context).pop();
+    }
+
+    /**
+     * Evaluate the given node on the frame of the current thread.
+     * @param node Given node.
+     * @param context Context of the program for tracking errors.
+     * @return Frame with the result on top of its stack.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    private static Frame evaluate(Node node, Context context) throws RuntimeError {
+        Frame frame = FRAMES.get();
+        frame.reset(context);
+        node.evaluate(frame);
+        return frame;
+    }
+
+    /**
+     * Run the given compiled chunk and return its result.
+     * Compile once with Compiler.compile and call this method for evaluating the same tree many times.
+     * @param chunk Compiled chunk.
+     * @param context Context of the program for tracking errors.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    public static MyNumber visit(Chunk chunk, Context context) throws RuntimeError {
+        return VirtualMachine.run(chunk, context);
+    }
+}
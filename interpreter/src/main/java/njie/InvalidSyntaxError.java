@@ -1,3 +1,5 @@
+package njie;
+
 /**
  * Class for invalid syntax error.
  * @author Gil-Ad Shay.
@@ -0,0 +1,551 @@
+package njie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runtime compiler of hot trees into JVM classes.
+ * Every tree is visited by the tree walker until it has been visited enough times. It is then compiled into a hidden class
+ * which computes the result on primitive values straight from the variable slots, so the JVM can inline and optimize it.
+ * Integers and booleans (1 or 0) are computed as longs, and floats as doubles.
+ * The class is specialized for the kinds the variables had when it was compiled. If a variable changes its kind, or the
+ * result can not be computed (e.g. division by zero, or an integer overflowing a long), the compiled code bails out, and the tree walker evaluates the tree
+ * again, reporting errors exactly as it always does.
+ * @see CompiledExpression
+ * @see JitRuntime
+ * @author Gil-Ad Shay.
+ */
+public class JitCompiler {
+    private static final int DEFAULT_THRESHOLD = 1000;
+
+    // Class file constants. Version 49 is verified without stack map frames, so branches need no frames.
+    private static final int CLASS_FILE_VERSION = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    // Limits of a method. Branch offsets are signed shorts, so the code is limited to their range.
+    private static final int MAX_CODE_SIZE = Short.MAX_VALUE;
+    private static final int MAX_CONSTANT_COUNT = 0xffff;
+
+    // Instructions of the JVM.
+    private static final int ICONST_0 = 0x03;
+    private static final int LCONST_0 = 0x09;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int DLOAD_2 = 0x28;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int DSTORE_2 = 0x49;
+    private static final int DUP2 = 0x5c;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DNEG = 0x77;
+    private static final int L2D = 0x8a;
+    private static final int LCMP = 0x94;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9a;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    // Internal names of the generated class and of the classes it uses, which are in the package of the compiler.
+    private static final String PACKAGE = JitCompiler.class.getPackageName().replace('.', '/') + "/";
+    private static final String CLASS_NAME = PACKAGE + "JitExpression";
+    private static final String RUNTIME = PACKAGE + "JitRuntime";
+    private static final String SYMBOL_TABLE = "L" + PACKAGE + "SymbolTable;";
+    private static final String NUMBER = "L" + PACKAGE + "MyNumber;";
+    private static final Map<OpCode, String> HELPERS = new HashMap<>() {{
+        put(OpCode.ADD, "add");
+        put(OpCode.SUB, "subtract");
+        put(OpCode.MUL, "multiply");
+        put(OpCode.DIV, "divide");
+        put(OpCode.POW, "power");
+        put(OpCode.EQ, "equal");
+        put(OpCode.NEQ, "notEqual");
+        put(OpCode.LT, "lessThan");
+        put(OpCode.LTE, "lessThanOrEqual");
+        put(OpCode.GT, "greaterThan");
+        put(OpCode.GTE, "greaterThanOrEqual");
+        put(OpCode.AND, "and");
+        put(OpCode.OR, "or");
+    }};
+
+    private static volatile int threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * Number of visits and compiled code of a tree, kept on its root (see Node.getProfile).
+     */
+    static class Profile {
+        // Not atomic, as the threshold does not have to be exact.
+        private int count;
+        private volatile CompiledExpression code;
+        // Kinds of the variables the tree loads (null for undefined) when it could not be compiled, so it is compiled
+        // again only once they change. null if compiling did not fail.
+        private volatile Frame.Kind[] failedKinds;
+
+        /**
+         * Compile the tree, specializing it for the current kinds of the variables.
+         * A tree which could not be compiled for the same kinds is not compiled again, which only takes a look at the
+         * kinds of its variables (without the lock) every threshold visits. A tree which can not be compiled whatever
+         * the kinds are (e.g. it assigns a variable) keeps failing the same way, and is never compiled again.
+         * @param node Root of the tree.
+         * @param symbolTable Symbol table of the variables.
+         */
+        private void compile(Node node, SymbolTable symbolTable) {
+            count = 0;
+            Chunk chunk = node.getChunk();
+            Frame.Kind[] kinds = kindsOf(chunk, symbolTable);
+            if (Arrays.equals(kinds, failedKinds))
+                return;
+            synchronized (this) {
+                if (code != null)
+                    return;
+                code = JitCompiler.compile(chunk, symbolTable);
+                failedKinds = code == null ? kinds : null;
+            }
+        }
+
+        boolean isCompiled() {
+            return code != null;
+        }
+
+        /**
+         * Throw away the compiled code, so the tree is profiled and compiled again.
+         */
+        private synchronized void deoptimize() {
+            code = null;
+            count = 0;
+        }
+    }
+
+    /**
+     * Get the kinds of the variables the given chunk loads.
+     * @param chunk Compiled chunk of the tree.
+     * @param symbolTable Symbol table of the variables.
+     * @return Kind of the variable of every load, in order. null for an undefined variable.
+     */
+    private static Frame.Kind[] kindsOf(Chunk chunk, SymbolTable symbolTable) {
+        int count = 0;
+        for (int ip = 0; ip < chunk.size(); ip++)
+            if (chunk.getOpCode(ip) == OpCode.LOAD)
+                count++;
+        Frame.Kind[] kinds = new Frame.Kind[count];
+        count = 0;
+        for (int ip = 0; ip < chunk.size(); ip++) {
+            if (chunk.getOpCode(ip) == OpCode.LOAD) {
+                MyNumber value = symbolTable.get(chunk.getOperand(ip));
+                kinds[count++] = value != null ? JitRuntime.kindOf(value) : null;
+            }
+        }
+        return kinds;
+    }
+
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Set the number of visits after which a tree is compiled.
+     * @param threshold New threshold.
+     */
+    public static void setThreshold(int threshold) {
+        JitCompiler.threshold = threshold;
+    }
+
+    /**
+     * Visit the given node and return its result, compiling the tree once it is hot.
+     * @param node Given node to visit all its node and calculate its value.
+     * @param context Context of the program for tracking errors.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    public static MyNumber visit(Node node, Context context) throws RuntimeError {
+        Profile profile = node.getProfile();
+        if (profile == null) {
+            // Threads racing here may each create a profile and lose some visits, as the threshold does not have to be exact.
+            profile = new Profile();
+            node.setProfile(profile);
+        }
+        CompiledExpression code = profile.code;
+        if (code != null) {
+            try {
+                return code.evaluate(context.getSymbolTable());
+            } catch (JitRuntime.Bailout e) {
+                profile.deoptimize();
+            }
+        } else if (++profile.count >= threshold) {
+            profile.compile(node, context.getSymbolTable());
+        }
+        return node.visit(context);
+    }
+
+    private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+    private final Map<String, Integer> constants = new HashMap<>();
+    private int constantCount = 1;
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    // Offset in the code of every instruction of the chunk, and of the end of the chunk.
+    private int[] offsets;
+    // Offsets of the branches in the code, and the instructions of the chunk they jump to.
+    private final Map<Integer, Integer> branches = new HashMap<>();
+
+    /**
+     * Compile the given chunk into a new class.
+     * @param chunk Compiled chunk of the tree.
+     * @param symbolTable Symbol table of the variables, for the kinds the class is specialized for.
+     * @return Compiled expression. null if the chunk can not be compiled (it assigns variables, loads undefined variables,
+     *         has integers which do not fit a long, applies a logical operation on a value which is not a boolean,
+     *         or is too large for a method).
+     */
+    public static CompiledExpression compile(Chunk chunk, SymbolTable symbolTable) {
+        JitCompiler compiler = new JitCompiler();
+        Frame.Kind kind = compiler.compileCode(chunk, symbolTable);
+        if (kind == null || compiler.code.size() > MAX_CODE_SIZE || compiler.constantCount > MAX_CONSTANT_COUNT)
+            return null;
+        try {
+            Class<?> cls = MethodHandles.lookup().defineHiddenClass(compiler.toClassFile(chunk.getMaxStack() * 2 + 4), true).lookupClass();
+            return (CompiledExpression) cls.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Generated an invalid class", e);
+        }
+    }
+
+    /**
+     * Generate the code of the evaluate method, keeping track of the kind of every value on the stack.
+     * @param chunk Compiled chunk of the tree.
+     * @param symbolTable Symbol table of the variables.
+     * @return Kind of the result. null if the chunk can not be compiled.
+     */
+    private Frame.Kind compileCode(Chunk chunk, SymbolTable symbolTable) {
+        Frame.Kind[] kinds = new Frame.Kind[chunk.getMaxStack()];
+        int sp = 0;
+        offsets = new int[chunk.size() + 1];
+        for (int ip = 0; ip < chunk.size(); ip++) {
+            OpCode opCode = chunk.getOpCode(ip);
+            offsets[ip] = code.size();
+            switch (opCode) {
+                case CONST: {
+                    MyNumber constant = chunk.getConstant(chunk.getOperand(ip));
+                    kinds[sp] = JitRuntime.kindOf(constant);
+                    if (kinds[sp] == Frame.Kind.BIG)
+                        return null;
+                    code.write(LDC2_W);
+                    writeShort(code, kinds[sp] == Frame.Kind.FLOAT ? doubleConstant(constant.getValue()) : longConstant(constant.getLongValue()));
+                    sp++;
+                    break;
+                }
+                case LOAD: {
+                    MyNumber value = symbolTable.get(chunk.getOperand(ip));
+                    if (value == null)
+                        return null;
+                    kinds[sp] = JitRuntime.kindOf(value);
+                    if (kinds[sp] == Frame.Kind.BIG)
+                        return null;
+                    code.write(ALOAD_1);
+                    pushInt(chunk.getOperand(ip));
+                    if (kinds[sp] == Frame.Kind.FLOAT) {
+                        invokeStatic(RUNTIME, "loadDouble", "(" + SYMBOL_TABLE + "I)D");
+                    } else {
+                        pushInt(kinds[sp].ordinal());
+                        invokeStatic(RUNTIME, "loadLong", "(" + SYMBOL_TABLE + "II)J");
+                    }
+                    sp++;
+                    break;
+                }
+                case STORE:
+                    return null;
+                case NEG:
+                    if (kinds[sp - 1] == Frame.Kind.FLOAT) {
+                        code.write(DNEG);
+                    } else {
+                        invokeStatic(RUNTIME, "negate", "(J)J");
+                        kinds[sp - 1] = Frame.Kind.INT;
+                    }
+                    break;
+                case NOT:
+                    if (kinds[sp - 1] != Frame.Kind.BOOLEAN)
+                        return null;
+                    invokeStatic(RUNTIME, "not", "(J)J");
+                    break;
+                case ID:
+                    break;
+                case JUMP_IF_FALSE:
+                case JUMP_IF_TRUE:
+                    // Booleans are 0 or 1, and the value is left as the result if it decides it.
+                    if (kinds[sp - 1] != Frame.Kind.BOOLEAN)
+                        return null;
+                    code.write(DUP2);
+                    code.write(LCONST_0);
+                    code.write(LCMP);
+                    branches.put(code.size(), chunk.getOperand(ip));
+                    code.write(opCode == OpCode.JUMP_IF_FALSE ? IFEQ : IFNE);
+                    writeShort(code, 0);
+                    break;
+                default: {
+                    Frame.Kind right = kinds[--sp];
+                    Frame.Kind left = kinds[sp - 1];
+                    if ((opCode == OpCode.AND || opCode == OpCode.OR) && (left != Frame.Kind.BOOLEAN || right != Frame.Kind.BOOLEAN))
+                        return null;
+                    boolean isInteger = left != Frame.Kind.FLOAT && right != Frame.Kind.FLOAT;
+                    if (!isInteger)
+                        widen(left, right);
+
+                    if (!isInteger && opCode == OpCode.ADD)
+                        code.write(DADD);
+                    else if (!isInteger && opCode == OpCode.SUB)
+                        code.write(DSUB);
+                    else if (!isInteger && opCode == OpCode.MUL)
+                        code.write(DMUL);
+                    else if (isInteger)
+                        invokeStatic(RUNTIME, HELPERS.get(opCode), "(JJ)J");
+                    else
+                        invokeStatic(RUNTIME, HELPERS.get(opCode), opCode == OpCode.DIV || opCode == OpCode.POW ? "(DD)D" : "(DD)J");
+
+                    if (opCode.compareTo(OpCode.EQ) >= 0)
+                        kinds[sp - 1] = Frame.Kind.BOOLEAN;
+                    else
+                        kinds[sp - 1] = isInteger ? Frame.Kind.INT : Frame.Kind.FLOAT;
+                }
+            }
+        }
+        offsets[chunk.size()] = code.size();
+        if (kinds[0] == Frame.Kind.FLOAT) {
+            invokeStatic(RUNTIME, "box", "(D)" + NUMBER);
+        } else {
+            pushInt(kinds[0].ordinal());
+            invokeStatic(RUNTIME, "box", "(JI)" + NUMBER);
+        }
+        code.write(ARETURN);
+        return kinds[0];
+    }
+
+    /**
+     * Get the generated code, with the offsets of its branches.
+     * @return Code of the evaluate method.
+     */
+    private byte[] getCode() {
+        byte[] bytes = code.toByteArray();
+        for (Map.Entry<Integer, Integer> branch : branches.entrySet()) {
+            int offset = offsets[branch.getValue()] - branch.getKey();
+            bytes[branch.getKey() + 1] = (byte) (offset >>> 8);
+            bytes[branch.getKey() + 2] = (byte) offset;
+        }
+        return bytes;
+    }
+
+    /**
+     * Convert the two operands on top of the stack to doubles, when at least one of them is a float.
+     * The right operand is kept in a local variable while the left one is converted.
+     * @param left Kind of the left operand.
+     * @param right Kind of the right operand.
+     */
+    private void widen(Frame.Kind left, Frame.Kind right) {
+        if (right != Frame.Kind.FLOAT)
+            code.write(L2D);
+        if (left != Frame.Kind.FLOAT) {
+            code.write(DSTORE_2);
+            code.write(L2D);
+            code.write(DLOAD_2);
+        }
+    }
+
+    private void pushInt(int value) {
+        if (value >= 0 && value <= 5) {
+            code.write(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.write(BIPUSH);
+            code.write(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.write(SIPUSH);
+            writeShort(code, value);
+        } else {
+            loadConstant(intConstant(value));
+        }
+    }
+
+    private void loadConstant(int idx) {
+        if (idx <= 0xff) {
+            code.write(LDC);
+            code.write(idx);
+        } else {
+            code.write(LDC_W);
+            writeShort(code, idx);
+        }
+    }
+
+    private void invokeStatic(String owner, String name, String descriptor) {
+        code.write(INVOKESTATIC);
+        writeShort(code, methodConstant(owner, name, descriptor));
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * Add a constant to the constant pool, unless it is already there.
+     * @param key Unique key of the constant.
+     * @param entry Writes the entry of the constant.
+     * @return Index of the constant in the pool.
+     */
+    private int constant(String key, ThrowableConsumer<DataOutputStream> entry) {
+        return constant(key, 1, entry);
+    }
+
+    /**
+     * Add a constant to the constant pool, unless it is already there.
+     * @param key Unique key of the constant.
+     * @param slots Number of slots the constant takes in the pool (2 for longs and doubles).
+     * @param entry Writes the entry of the constant.
+     * @return Index of the constant in the pool.
+     */
+    private int constant(String key, int slots, ThrowableConsumer<DataOutputStream> entry) {
+        Integer idx = constants.get(key);
+        if (idx != null)
+            return idx;
+        try {
+            entry.accept(new DataOutputStream(constantPool));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        constants.put(key, constantCount);
+        constantCount += slots;
+        return constantCount - slots;
+    }
+
+    /**
+     * Interface for writing to a stream.
+     */
+    @FunctionalInterface
+    private interface ThrowableConsumer<T> {
+        public void accept(T t) throws IOException;
+    }
+
+    private int utf8Constant(String value) {
+        return constant("Utf8 " + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    private int intConstant(int value) {
+        return constant("Integer " + value, out -> {
+            out.writeByte(CONSTANT_INTEGER);
+            out.writeInt(value);
+        });
+    }
+
+    private int longConstant(long value) {
+        return constant("Long " + value, 2, out -> {
+            out.writeByte(CONSTANT_LONG);
+            out.writeLong(value);
+        });
+    }
+
+    private int doubleConstant(double value) {
+        return constant("Double " + Double.doubleToRawLongBits(value), 2, out -> {
+            out.writeByte(CONSTANT_DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(value));
+        });
+    }
+
+    private int classConstant(String name) {
+        int nameIdx = utf8Constant(name);
+        return constant("Class " + name, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(nameIdx);
+        });
+    }
+
+    private int methodConstant(String owner, String name, String descriptor) {
+        int ownerIdx = classConstant(owner);
+        int nameIdx = utf8Constant(name);
+        int descriptorIdx = utf8Constant(descriptor);
+        int nameAndTypeIdx = constant("NameAndType " + name + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIdx);
+            out.writeShort(descriptorIdx);
+        });
+        return constant("Methodref " + owner + "." + name + descriptor, out -> {
+            out.writeByte(CONSTANT_METHODREF);
+            out.writeShort(ownerIdx);
+            out.writeShort(nameAndTypeIdx);
+        });
+    }
+
+    /**
+     * Build the class file of a class implementing CompiledExpression with the generated code.
+     * @param maxStack Maximal depth of the stack of the generated code.
+     * @return Bytes of the class file.
+     */
+    private byte[] toClassFile(int maxStack) {
+        int thisClass = classConstant(CLASS_NAME);
+        int superClass = classConstant("java/lang/Object");
+        int superInterface = classConstant(PACKAGE + "CompiledExpression");
+        int codeName = utf8Constant("Code");
+        int initName = utf8Constant("<init>");
+        int initDescriptor = utf8Constant("()V");
+        int evaluateName = utf8Constant("evaluate");
+        int evaluateDescriptor = utf8Constant("(" + SYMBOL_TABLE + ")" + NUMBER);
+        int objectInit = methodConstant("java/lang/Object", "<init>", "()V");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xcafebabe);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+            out.writeShort(constantCount);
+            constantPool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(superInterface);
+            out.writeShort(0);
+
+            out.writeShort(2);
+            writeMethod(out, initName, initDescriptor, codeName, 1, 1, new byte[] {
+                (byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >>> 8), (byte) objectInit, (byte) RETURN
+            });
+            writeMethod(out, evaluateName, evaluateDescriptor, codeName, maxStack, 4, getCode());
+
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName, int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+}
@@ -0,0 +1,214 @@
+package njie;
+
+/**
+ * Static helpers called by the classes generated by the JIT compiler.
+ * Every helper is small enough for the JVM to inline it into the generated code.
+ * @see JitCompiler
+ * @author Gil-Ad Shay.
+ */
+public class JitRuntime {
+    /**
+     * Thrown by compiled code when it can not go on, so the expression is evaluated again by the interpreter.
+     * Compiled expressions do not assign variables, so evaluating again has no visible effect.
+     * A single instance without a stack trace is used, so bailing out costs nothing.
+     */
+    public static class Bailout extends RuntimeException {
+        private Bailout() {
+            super(null, null, false, false);
+        }
+    }
+
+    public static final Bailout BAILOUT = new Bailout();
+
+    /**
+     * Get the variable in the given slot, making sure it is still of the kind it was compiled for.
+     * @param symbolTable Symbol table of the variables.
+     * @param slot Slot of the variable.
+     * @param kind Ordinal of the expected kind.
+     * @return Value of the variable.
+     */
+    private static MyNumber get(SymbolTable symbolTable, int slot, int kind) {
+        MyNumber value = symbolTable.get(slot);
+        if (value == null || kindOf(value).ordinal() != kind)
+            throw BAILOUT;
+        return value;
+    }
+
+    /**
+     * Load the value of an integer or boolean variable (1 for TRUE and 0 for FALSE).
+     * @param symbolTable Symbol table of the variables.
+     * @param slot Slot of the variable.
+     * @param kind Ordinal of the expected kind (INT or BOOLEAN).
+     * @return Value of the variable.
+     */
+    public static long loadLong(SymbolTable symbolTable, int slot, int kind) {
+        return get(symbolTable, slot, kind).getLongValue();
+    }
+
+    /**
+     * Load the value of a float variable.
+     * @param symbolTable Symbol table of the variables.
+     * @param slot Slot of the variable.
+     * @return Value of the variable.
+     */
+    public static double loadDouble(SymbolTable symbolTable, int slot) {
+        return get(symbolTable, slot, Frame.Kind.FLOAT.ordinal()).getValue();
+    }
+
+    /**
+     * Get the kind of the given number.
+     * @param number Given number.
+     * @return Kind of the number.
+     */
+    public static Frame.Kind kindOf(MyNumber number) {
+        if (number instanceof MyBoolean)
+            return Frame.Kind.BOOLEAN;
+        if (!number.isInteger())
+            return Frame.Kind.FLOAT;
+        return number.isBig() ? Frame.Kind.BIG : Frame.Kind.INT;
+    }
+
+    /**
+     * Create the result of a compiled expression which is an integer or a boolean.
+     * @param value Value of the result.
+     * @param kind Ordinal of the kind of the result (INT or BOOLEAN).
+     * @return Number with the given value.
+     */
+    public static MyNumber box(long value, int kind) {
+        if (kind == Frame.Kind.INT.ordinal())
+            return MyNumber.of(value);
+        return MyBoolean.valueOf(value != 0);
+    }
+
+    /**
+     * Create the result of a compiled expression which is a float.
+     * @param value Value of the result.
+     * @return Number with the given value.
+     */
+    public static MyNumber box(double value) {
+        return MyNumber.of(value);
+    }
+
+    // Integer arithmetic bails out when it overflows a long, so the interpreter promotes the result to a BigInteger.
+
+    public static long add(long x, long y) {
+        try {
+            return Math.addExact(x, y);
+        } catch (ArithmeticException e) {
+            throw BAILOUT;
+        }
+    }
+
+    public static long subtract(long x, long y) {
+        try {
+            return Math.subtractExact(x, y);
+        } catch (ArithmeticException e) {
+            throw BAILOUT;
+        }
+    }
+
+    public static long multiply(long x, long y) {
+        try {
+            return Math.multiplyExact(x, y);
+        } catch (ArithmeticException e) {
+            throw BAILOUT;
+        }
+    }
+
+    public static long negate(long x) {
+        try {
+            return Math.negateExact(x);
+        } catch (ArithmeticException e) {
+            throw BAILOUT;
+        }
+    }
+
+    public static long divide(long x, long y) {
+        // The interpreter reports the division by zero with the span of the divisor.
+        if (y == 0 || (x == Long.MIN_VALUE && y == -1))
+            throw BAILOUT;
+        return x / y;
+    }
+
+    public static double divide(double x, double y) {
+        if (y == 0)
+            throw BAILOUT;
+        return x / y;
+    }
+
+    public static long power(long x, long y) {
+        try {
+            return MyNumber.power(x, y);
+        } catch (ArithmeticException e) {
+            throw BAILOUT;
+        }
+    }
+
+    public static double power(double x, double y) {
+        return Math.pow(x, y);
+    }
+
+    private static long toLong(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    public static long equal(long x, long y) {
+        return toLong(x == y);
+    }
+
+    public static long equal(double x, double y) {
+        return toLong(x == y);
+    }
+
+    public static long notEqual(long x, long y) {
+        return toLong(x != y);
+    }
+
+    public static long notEqual(double x, double y) {
+        return toLong(x != y);
+    }
+
+    public static long lessThan(long x, long y) {
+        return toLong(x < y);
+    }
+
+    public static long lessThan(double x, double y) {
+        return toLong(x < y);
+    }
+
+    public static long lessThanOrEqual(long x, long y) {
+        return toLong(x <= y);
+    }
+
+    public static long lessThanOrEqual(double x, double y) {
+        return toLong(x <= y);
+    }
+
+    public static long greaterThan(long x, long y) {
+        return toLong(x > y);
+    }
+
+    public static long greaterThan(double x, double y) {
+        return toLong(x > y);
+    }
+
+    public static long greaterThanOrEqual(long x, long y) {
+        return toLong(x >= y);
+    }
+
+    public static long greaterThanOrEqual(double x, double y) {
+        return toLong(x >= y);
+    }
+
+    public static long and(long x, long y) {
+        return toLong(x != 0 && y != 0);
+    }
+
+    public static long or(long x, long y) {
+        return toLong(x != 0 || y != 0);
+    }
+
+    public static long not(long x) {
+        return toLong(x == 0);
+    }
+}
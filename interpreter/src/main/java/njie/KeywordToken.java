@@ -1,6 +1,7 @@
+package njie;
+
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * Class for tokens of type keywords.
@@ -8,7 +9,7 @@ import java.util.Objects;
  */
 public class KeywordToken extends Token {
     
-    enum Keyword {
+    public enum Keyword {
         VAR, 
         AND,
         OR,
@@ -22,6 +23,14 @@ public class KeywordToken extends Token {
         put("NOT", Keyword.NOT);
     }};
 
+    // Keywords without a position, shared as in Token.
+    private static final KeywordToken[] SHARED = new KeywordToken[Keyword.values().length];
+
+    static {
+        for (Keyword keyword : Keyword.values())
+            SHARED[keyword.ordinal()] = new KeywordToken(keyword);
+    }
+
     private final Keyword keyword;
 
     /**
@@ -36,27 +45,34 @@ public class KeywordToken extends Token {
     /**
      * Initialize new keyword token.
      * @param keyword Keyword of this token.
-     * @param start Starting position.
+     * @param source Source of the token.
+     * @param start Starting offset.
      */
-    public KeywordToken(Keyword keyword, Position start) {
-        super(Token.Type.KEYWORD, start);
+    public KeywordToken(Keyword keyword, Source source, int start) {
+        super(Token.Type.KEYWORD, source, start);
         this.keyword = keyword;
     }
 
     /**
      * Initialize new keyword token.
      * @param keyword Keyword of this token.
-     * @param start Starting position.
-     * @param end Ending position.
+     * @param source Source of the token.
+     * @param start Starting offset.
+     * @param end Ending offset.
      */
-    public KeywordToken(Keyword keyword, Position start, Position end) {
-        super(Token.Type.KEYWORD, start, end);
+    public KeywordToken(Keyword keyword, Source source, int start, int end) {
+        super(Token.Type.KEYWORD, source, start, end);
         this.keyword = keyword;
     }
 
     public Keyword getKeyword() {
         return keyword;
     }
+
+    @Override
+    public KeywordToken intern() {
+        return SHARED[keyword.ordinal()];
+    }
     
     @Override
     public String toString() {
@@ -77,6 +93,6 @@ public class KeywordToken extends Token {
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), keyword);
+        return 31 * super.hashCode() + keyword.hashCode();
     }
 }
@@ -0,0 +1,328 @@
+package njie;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class for tokenizing text.
+ * Either tokenizes a whole string, or streams the text of a Reader (or CharBuffer) line by line,
+ * so only the current line is kept in memory.
+ * @author Gil-Ad Shay.
+ */
+public class Lexer implements TokenStream {
+    private static final char NONE = '\0';
+    private static final int WINDOW_SIZE = 8192;
+
+    // Classes of ASCII characters. Other characters are classified with Character.isDigit and Character.isAlphabetic.
+    private static final byte OTHER = 0;
+    private static final byte END = 1;
+    private static final byte SPACE = 2;
+    private static final byte NEWLINE = 3;
+    private static final byte DIGIT = 4;
+    private static final byte LETTER = 5;
+    private static final byte OPERATOR = 6;
+    private static final byte COMPARISON = 7;
+    private static final byte[] CLASSES = new byte[128];
+    private static final Token.Type[] OPERATORS = new Token.Type[128];
+    // Largest mantissa which a double holds exactly, and the powers of ten which a double holds exactly.
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Largest mantissa which can take one more digit without overflowing a long.
+    private static final long MAX_MANTISSA = Long.MAX_VALUE / 10 - 1;
+
+    static {
+        CLASSES[NONE] = END;
+        CLASSES[' '] = CLASSES['\t'] = CLASSES['\r'] = SPACE;
+        CLASSES['\n'] = NEWLINE;
+        for (char c = '0'; c <= '9'; c++)
+            CLASSES[c] = DIGIT;
+        for (char c = 'a'; c <= 'z'; c++)
+            CLASSES[c] = CLASSES[Character.toUpperCase(c)] = LETTER;
+        CLASSES['!'] = CLASSES['='] = CLASSES['<'] = CLASSES['>'] = COMPARISON;
+
+        OPERATORS['+'] = Token.Type.PLUS;
+        OPERATORS['-'] = Token.Type.MIN;
+        OPERATORS['*'] = Token.Type.MUL;
+        OPERATORS['/'] = Token.Type.DIV;
+        OPERATORS['^'] = Token.Type.POW;
+        OPERATORS['('] = Token.Type.LPAREN;
+        OPERATORS[')'] = Token.Type.RPAREN;
+        for (char c = 0; c < 128; c++)
+            if (OPERATORS[c] != null)
+                CLASSES[c] = OPERATOR;
+    }
+
+    private final String fn;
+    private final Readable input;
+    private final CharBuffer window;
+    private String text;
+    private Source source;
+    private int idx;
+    private int line;
+
+    /**
+     * Initialize a new Lexer with the given text.
+     * @param fn File name.
+     * @param text Given text.
+     */
+    public Lexer(String fn, String text) {
+        this(new Source(fn, text));
+    }
+
+    /**
+     * Initialize a new Lexer with the text of the given source.
+     * @param source Source of the text (e.g. a single line of a file).
+     */
+    public Lexer(Source source) {
+        this.text = source.getText();
+        this.fn = source.getName();
+        this.source = source;
+        this.input = null;
+        this.window = null;
+    }
+
+    /**
+     * Initialize a new streaming Lexer reading its text from the given input (e.g. a Reader or a CharBuffer).
+     * The input is read in a small window and tokenized line by line.
+     * @param fn File name.
+     * @param input Given input.
+     */
+    public Lexer(String fn, Readable input) {
+        this.text = "";
+        this.fn = fn;
+        this.source = new Source(fn, text);
+        this.input = input;
+        this.window = CharBuffer.allocate(WINDOW_SIZE);
+        this.window.flip();
+    }
+
+    /**
+     * Read the next line of the input (including its '\n') into this text.
+     * @return true if a line was read. false if there is no more input (always false when not streaming).
+     */
+    private boolean readLine() {
+        if (input == null)
+            return false;
+
+        StringBuilder sb = new StringBuilder();
+        try {
+            while (true) {
+                if (!window.hasRemaining()) {
+                    window.clear();
+                    int read = input.read(window);
+                    window.flip();
+                    if (read < 0)
+                        break;
+                    continue;
+                }
+                char c = window.get();
+                sb.append(c);
+                if (c == '\n')
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (sb.length() == 0)
+            return false;
+        text = sb.toString();
+        source = new Source(fn, text, line++);
+        idx = 0;
+        return true;
+    }
+
+    /**
+     * Get the class of the given character.
+     * @param c Given character.
+     * @return Class of the character.
+     */
+    private static byte classOf(char c) {
+        if (c < 128)
+            return CLASSES[c];
+        if (Character.isDigit(c))
+            return DIGIT;
+        return Character.isAlphabetic(c) ? LETTER : OTHER;
+    }
+
+    /**
+     * Tokenize the text into list of tokens.
+     * @return List of tokens representing the text of the lexer.
+     * @throws IllegalCharError when encountering an undefined character.
+     * @throws ExpectedCharError when encountering '!' not followed by '='.
+     */
+    public List<Token> makeTokens() throws IllegalCharError, ExpectedCharError {
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = next();
+            tokens.add(token);
+        } while (token.getType() != Token.Type.EOF);
+        return tokens;
+    }
+
+    /**
+     * Get the next token of the text.
+     * Once the text is over, return EOF tokens.
+     * @return Next token.
+     * @throws IllegalCharError when encountering an undefined character.
+     * @throws ExpectedCharError when encountering '!' not followed by '='.
+     */
+    @Override
+    public Token next() throws IllegalCharError, ExpectedCharError {
+        while (true) {
+            char c = idx < text.length() ? text.charAt(idx) : NONE;
+            switch (classOf(c)) {
+                // End of the current line
+                case END:
+                    if (!readLine())
+                        return new Token(Token.Type.EOF, source, idx);
+                    break;
+                // ignore ' ', '\t' and '\r'
+                case SPACE:
+                    idx++;
+                    break;
+                // '\n' separates statements
+                case NEWLINE:
+                    return new Token(Token.Type.NEWLINE, source, idx++);
+                // +, -, *, /, ^, (, or )
+                case OPERATOR:
+                    return new Token(OPERATORS[c], source, idx++);
+                case DIGIT:
+                    return makeNumber();
+                case LETTER:
+                    return makeIdentifierOrKeyword();
+                case COMPARISON:
+                    return makeComparison(c);
+                // Error
+                default: {
+                    Position start = new Position(source, idx);
+                    idx++;
+                    throw new IllegalCharError("" + "'" + c + "'", start, new Position(source, idx));
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a valueble (numeric) token from a sequence of digits.
+     * Check if it is a float or an integer and return matching token.
+     * The value is computed while scanning. Only numbers which do not fit the fast path are parsed from a substring.
+     * @return ValueableToken representing sequence of digits and '.'. If the number is float, return ValueableToken of type FLOAT, and otherwise of type INT.
+     */
+    private NumericToken makeNumber() {
+        int start = idx;
+        int length = text.length();
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean isThereDot = false;
+        boolean isExact = true;
+        for (; idx < length; idx++) {
+            char c = text.charAt(idx);
+            if (c >= '0' && c <= '9') {
+                if (mantissa <= MAX_MANTISSA)
+                    mantissa = mantissa * 10 + (c - '0');
+                else
+                    isExact = false;
+                if (isThereDot)
+                    fractionDigits++;
+            } else if (c == '.') {
+                if (isThereDot)
+                    break;
+                isThereDot = true;
+            } else if (c >= 128 && Character.isDigit(c)) {
+                // Other digits are left to the parsing methods of the JDK
+                isExact = false;
+            } else {
+                break;
+            }
+        }
+
+        MyNumber value;
+        if (!isThereDot) {
+            value = isExact ? MyNumber.of(mantissa) : MyNumber.of(new BigInteger(text.substring(start, idx)));
+        } else {
+            // Both the mantissa and the power of ten are exact doubles, so their quotient is rounded exactly as parsing rounds it.
+            value = MyNumber.of(isExact && mantissa <= MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length ?
+                mantissa / POWERS_OF_TEN[fractionDigits] :
+                Double.parseDouble(text.substring(start, idx)));
+        }
+        return new NumericToken(isThereDot ? Token.Type.FLOAT : Token.Type.INT, value, source, start, idx);
+    }
+
+    /**
+     * Check for alphabetical token and return a keyword token or an identifier token based on whether the input is a keyword.
+     * @return Keyword token if it is a keyword. Otherwise, identifier token.
+     */
+    private Token makeIdentifierOrKeyword() {
+        int start = idx;
+        int length = text.length();
+        while (idx < length) {
+            byte cls = classOf(text.charAt(idx));
+            if (cls != LETTER && cls != DIGIT)
+                break;
+            idx++;
+        }
+
+        KeywordToken.Keyword keyword = matchKeyword(start, idx);
+        return keyword != null ?
+            new KeywordToken(keyword, source, start, idx) :
+            new IdentifierToken(text.substring(start, idx), source, start, idx);
+    }
+
+    /**
+     * Match the given range of the text against the keywords, without creating a string.
+     * @param start Start of the range.
+     * @param end End of the range.
+     * @return Keyword of the range. null if it is not a keyword.
+     */
+    private KeywordToken.Keyword matchKeyword(int start, int end) {
+        switch (end - start) {
+            case 2:
+                return text.startsWith("OR", start) ? KeywordToken.Keyword.OR : null;
+            case 3:
+                if (text.startsWith("VAR", start))
+                    return KeywordToken.Keyword.VAR;
+                if (text.startsWith("AND", start))
+                    return KeywordToken.Keyword.AND;
+                if (text.startsWith("NOT", start))
+                    return KeywordToken.Keyword.NOT;
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Make a comparison or assignment token: '=' or '==', '<' or '<=', '>' or '>=', and '!='.
+     * @param c First character of the token.
+     * @return Token of the comparison.
+     * @throws ExpectedCharError If '!' is not followed by '='.
+     */
+    private Token makeComparison(char c) throws ExpectedCharError {
+        int start = idx++;
+        boolean isEquals = idx < text.length() && text.charAt(idx) == '=';
+        if (isEquals)
+            idx++;
+
+        switch (c) {
+            case '=':
+                return new Token(isEquals ? Token.Type.EQUALS : Token.Type.ASSIGN, source, start, idx);
+            case '<':
+                return new Token(isEquals ? Token.Type.LESS_THAN_OR_EQUALS : Token.Type.LESS_THAN, source, start, idx);
+            case '>':
+                return new Token(isEquals ? Token.Type.GREATER_THAN_OR_EQUALS : Token.Type.GREATER_THAN, source, start, idx);
+            default:
+                if (isEquals)
+                    return new Token(Token.Type.NOT_EQUALS, source, start, idx);
+                idx++;
+                throw new ExpectedCharError("'=' (after '!')", new Position(source, start), new Position(source, idx));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package njie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Class for running the program.
+ * Usage: Main [--vm | --primitive | --jit] [--optimize] [--reactive] [--image] [--prelude=P] [--snapshot=S]
+ *             [--cache-size=N] [--cache-stats] [script]
+ * Without a script, runs the REPL. Otherwise, runs every statement of the script.
+ * The REPL keeps the trees of the last N (a positive integer, 4096 by default) distinct lines it parsed. With
+ * --cache-stats, it shows the hits, misses and evictions of this cache when its input ends.
+ * With --reactive, variables assigned by expressions of other variables are kept up to date as those change.
+ * With --image, the parsed script is kept in an image next to it (script.njc), and later runs load it without parsing.
+ * With --prelude, the statements of the prelude run first, without showing their results. With --snapshot, the global
+ * symbol table is restored out of the snapshot instead. A missing or stale snapshot is taken again after running the
+ * prelude.
+ * @author Gil-Ad Shay.
+ */
+public class Main {
+    private static final SymbolTable globalSymbolTable = new SymbolTable();
+    private static Scanner input = new Scanner(System.in);
+    private static final String USAGE = "Usage: Main [--vm | --primitive | --jit] [--optimize] [--reactive] [--image] "
+            + "[--prelude=P] [--snapshot=S] [--cache-size=N] [--cache-stats] [script]";
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+    private static Optimizer optimizer = null;
+    private static ExpressionCache cache;
+    private static boolean useImage = false;
+    private static boolean showCacheStats = false;
+    private static void run(String text) {
+        try {
+            // Generate optimized AST (or reuse the AST of the same text)
+            Node ast = cache.parse(text);
+
+            // Run program and show result
+            System.out.println(visit(ast));
+        } catch (Error e) {
+            System.out.println(e.toString());
+        }
+    }
+
+    /**
+     * Run every statement of the given script file against the global symbol table, showing the result of each statement.
+     * The file is memory mapped and lexed straight from the mapping, one statement at a time.
+     * @param path Path of the script.
+     * @return true if all statements ran successfully. false if running stopped on an error.
+     */
+    private static boolean runFile(Path path) {
+        try {
+            Lexer lexer = new Lexer(path.toString(), new MappedFileReader(path));
+            Parser parser = new Parser(lexer);
+
+            Node ast;
+            while ((ast = parser.parseStatement()) != null)
+                System.out.println(execute(ast));
+            return true;
+        } catch (Error e) {
+            System.out.println(e.toString());
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println(String.format("Can not read %s: %s", path, e.getMessage()));
+        }
+        return false;
+    }
+
+    /**
+     * Run every statement of the given script file, loading its trees out of its image (see ScriptImage).
+     * A missing or stale image is written again. A script which does not parse, or whose image can not be used, is run
+     * as by runFile, so it runs and fails exactly as without an image.
+     * @param path Path of the script.
+     * @return true if all statements ran successfully. false if running stopped on an error.
+     */
+    private static boolean runImage(Path path) {
+        List<Node> statements;
+        try {
+            statements = ScriptImage.loadOrCompile(path, Paths.get(path + ".njc"));
+        } catch (Error | IOException | UncheckedIOException e) {
+            return runFile(path);
+        }
+
+        try {
+            for (Node ast : statements)
+                System.out.println(execute(ast));
+            return true;
+        } catch (RuntimeError e) {
+            System.out.println(e.toString());
+        }
+        return false;
+    }
+
+    /**
+     * Initialize the global symbol table by restoring the given snapshot, or by running the given prelude.
+     * The prelude runs as parsed, without the optimizer, so the definitions it leaves in reactive mode can be written
+     * to the snapshot (see Snapshot).
+     * @param prelude Path of the prelude. null if there is none, in which case the snapshot must be restored.
+     * @param snapshot Path of the snapshot. null if there is none, in which case the prelude is run.
+     * @return true if the symbol table was initialized. false if the prelude failed or the snapshot could not be restored.
+     */
+    private static boolean initialize(Path prelude, Path snapshot) {
+        try {
+            byte[] content = prelude != null ? Files.readAllBytes(prelude) : null;
+            byte[] hash = content != null ? ScriptImage.hash(ByteBuffer.wrap(content)) : null;
+            if (snapshot != null && Snapshot.restore(snapshot, hash, globalSymbolTable, new Context("<program>", globalSymbolTable)))
+                return true;
+            if (prelude == null) {
+                System.out.println(String.format("Can not restore %s", snapshot));
+                return false;
+            }
+
+            List<Node> statements = ScriptImage.parse(prelude.toString(), new String(content, StandardCharsets.UTF_8));
+            for (Node ast : statements)
+                Interpreter.visit(ast, new Context("<program>", globalSymbolTable));
+            if (snapshot != null)
+                writeSnapshot(snapshot, hash, statements);
+            return true;
+        } catch (Error e) {
+            System.out.println(e.toString());
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println(String.format("Can not initialize from %s: %s", prelude != null ? prelude : snapshot, e.getMessage()));
+        }
+        return false;
+    }
+
+    /**
+     * Take a snapshot of the global symbol table after running the prelude. Failing to write it is shown, but the
+     * symbol table is initialized all the same.
+     * @param snapshot Path of the snapshot.
+     * @param hash Hash of the prelude.
+     * @param prelude Trees of the statements of the prelude.
+     */
+    private static void writeSnapshot(Path snapshot, byte[] hash, List<Node> prelude) {
+        try {
+            Snapshot.write(snapshot, hash, prelude, globalSymbolTable);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println(String.format("Can not write %s: %s", snapshot, e.getMessage()));
+        }
+    }
+
+    /**
+     * Optimize (if enabled) and run the given tree in the global context.
+     * @param ast Tree of the program.
+     * @return Result of the program.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    private static MyNumber execute(Node ast) throws RuntimeError {
+        // Optimize AST
+        if (optimizer != null)
+            ast = optimizer.optimize(ast);
+        return visit(ast);
+    }
+
+    /**
+     * Run the given tree, as is, in the global context.
+     * @param ast Tree of the program.
+     * @return Result of the program.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    private static MyNumber visit(Node ast) throws RuntimeError {
+        // Initialize context
+        Context context = new Context("<program>", globalSymbolTable);
+
+        // Run program
+        return Interpreter.visit(ast, context);
+    }
+
+    /**
+     * Parse the size of the expression cache.
+     * @param value Value of the --cache-size argument.
+     * @return The size. -1 if the value is not a positive integer.
+     */
+    private static int parseCacheSize(String value) {
+        try {
+            int size = Integer.parseInt(value);
+            return size > 0 ? size : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static void main(String[] args) {
+        // Parse arguments
+        Path script = null;
+        Path prelude = null;
+        Path snapshot = null;
+        int cacheSize = DEFAULT_CACHE_SIZE;
+        for (String arg : args) {
+            if (arg.equals("--vm"))
+                Interpreter.setEngine(Interpreter.Engine.VIRTUAL_MACHINE);
+            else if (arg.equals("--primitive"))
+                Interpreter.setEngine(Interpreter.Engine.PRIMITIVE);
+            else if (arg.equals("--jit"))
+                Interpreter.setEngine(Interpreter.Engine.JIT);
+            else if (arg.equals("--optimize"))
+                optimizer = new Optimizer(globalSymbolTable);
+            else if (arg.equals("--reactive"))
+                globalSymbolTable.setReactive(true);
+            else if (arg.equals("--image"))
+                useImage = true;
+            else if (arg.startsWith("--prelude="))
+                prelude = Paths.get(arg.substring("--prelude=".length()));
+            else if (arg.startsWith("--snapshot="))
+                snapshot = Paths.get(arg.substring("--snapshot=".length()));
+            else if (arg.startsWith("--cache-size=")) {
+                cacheSize = parseCacheSize(arg.substring("--cache-size=".length()));
+                if (cacheSize < 0) {
+                    System.out.println(String.format("Expected a positive integer in %s", arg));
+                    System.out.println(USAGE);
+                    System.exit(1);
+                }
+            } else if (arg.equals("--cache-stats"))
+                showCacheStats = true;
+            else
+                script = Paths.get(arg);
+        }
+
+        // Initialize global symbol table
+        globalSymbolTable.setConstant("NULL", MyNumber.of(0));
+        globalSymbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        globalSymbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        if ((prelude != null || snapshot != null) && !initialize(prelude, snapshot))
+            System.exit(1);
+
+        // Run script
+        if (script != null) {
+            if (!(useImage ? runImage(script) : runFile(script)))
+                System.exit(1);
+            return;
+        }
+
+        // The cache optimizes the trees it parses, so a line which is run again is not optimized again.
+        cache = new ExpressionCache("<stdin>", cacheSize, optimizer);
+        System.out.print("basic > ");
+        while (input.hasNextLine()) {
+            run(input.nextLine());
+            System.out.print("basic > ");
+        }
+        System.out.println();
+        if (showCacheStats)
+            System.out.println(String.format("Cache %s", cache));
+    }
+}
@@ -0,0 +1,50 @@
+package njie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class for reading a file through a memory mapping.
+ * The file is decoded straight from the mapped bytes into the buffer of the reader (e.g. the window of a streaming lexer),
+ * so it is never copied into a String.
+ * @see Lexer
+ * @author Gil-Ad Shay.
+ */
+public class MappedFileReader implements Readable {
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+
+    /**
+     * Initialize a new reader of the given UTF-8 file.
+     * @param path Path of the file.
+     * @throws IOException If the file can not be opened or mapped.
+     */
+    public MappedFileReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public int read(CharBuffer cb) throws IOException {
+        if (!bytes.hasRemaining())
+            return -1;
+
+        int start = cb.position();
+        CoderResult result = decoder.decode(bytes, cb, true);
+        if (result.isError())
+            result.throwException();
+        return cb.position() - start;
+    }
+}
@@ -0,0 +1,74 @@
+package njie;
+
+/**
+ * Class for booleans in NJie, which are the numbers 1 (TRUE) and 0 (FALSE).
+ * There are only two instances, TRUE and FALSE.
+ * @author Gil-Ad Shay.
+ */
+public class MyBoolean extends MyNumber {
+    public static final MyBoolean TRUE = new MyBoolean(true);
+    public static final MyBoolean FALSE = new MyBoolean(false);
+
+    private final boolean value;
+
+    private MyBoolean(boolean value) {
+        super(value ? 1 : 0);
+        this.value = value;
+    }
+
+    /**
+     * Get the boolean of the given value.
+     * @param value Given value.
+     * @return TRUE or FALSE.
+     */
+    public static MyBoolean valueOf(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public boolean getBooleanValue() {
+        return value;
+    }
+
+    @Override
+    public MyBoolean toBoolean() {
+        return this;
+    }
+
+    @Override
+    public MyBoolean intern() {
+        return this;
+    }
+
+    /**
+     * Get this & other where number is considered to be TRUE if its value is not 0.
+     * @param other Other number.
+     * @return Number of value 1 if both this and other values are not 0. Otherwise, number of value 0.
+     */
+    public MyBoolean and(MyBoolean other) {
+        return valueOf(value && other.value);
+    }
+
+    /**
+     * Get this | other where number is considered to be TRUE if its value is not 0.
+     * @param other Other number.
+     * @return Number of value 1 if this value is not 0 or other value is not 0. Otherwise, number of value 0.
+     */
+    public MyBoolean or(MyBoolean other) {
+        return valueOf(value || other.value);
+    }
+
+    /**
+     * Return the logical negation of this number.
+     * @param other Other number.
+     * @return Number of value 0 if this value is not 0. Otherwise, number of value 1.
+     */
+    public MyBoolean not() {
+        return valueOf(!value);
+    }
+
+    @Override
+    public String toString() {
+        return value ? "TRUE" : "FALSE";
+    }
+
+}
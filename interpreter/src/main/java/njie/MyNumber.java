@@ -0,0 +1,555 @@
+package njie;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Class for numbers in NJie.
+ * Integers are longs, and are promoted to BigIntegers when an operation overflows a long. Floats are doubles.
+ * Numbers are immutable and do not know where they were computed, so they can be shared by nodes, symbol tables and results.
+ * Runtime errors get their spans from the nodes that compute the numbers.
+ * @author Gil-Ad Shay.
+ */
+public class MyNumber {
+    // Largest number of bits of an integer computed by pow, so a huge exponent fails instead of exhausting the memory.
+    public static final int MAX_POWER_BITS = 1 << 20;
+
+    // Shared instances of the integers in [MIN_CACHED, MAX_CACHED].
+    private static final int MIN_CACHED = -128;
+    private static final int MAX_CACHED = 1024;
+    private static final MyNumber[] SMALL_INTEGERS = new MyNumber[MAX_CACHED - MIN_CACHED + 1];
+
+    static {
+        for (int i = 0; i < SMALL_INTEGERS.length; i++)
+            SMALL_INTEGERS[i] = new MyNumber(MIN_CACHED + i);
+    }
+
+    /**
+     * Arithmetic exception without a stack trace.
+     * Overflows and errors are signalled by single instances, so signalling them costs nothing.
+     */
+    private static class Signal extends ArithmeticException {
+        private Signal(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private static final ArithmeticException OVERFLOW = new Signal("long overflow");
+    private static final ArithmeticException DIVISION_BY_ZERO = new Signal("Division by zero");
+    private static final ArithmeticException INTEGER_TOO_LARGE = new Signal("Integer too large");
+    private static final ArithmeticException NOT_A_BOOLEAN = new Signal("Expected a boolean value");
+
+    private final long longValue;
+    private final double doubleValue;
+    // Value of an integer which does not fit a long. null for other numbers.
+    private final BigInteger bigValue;
+    private final boolean isInteger;
+
+    protected MyNumber(long value) {
+        this.longValue = value;
+        this.doubleValue = value;
+        this.bigValue = null;
+        this.isInteger = true;
+    }
+
+    private MyNumber(double value) {
+        this.longValue = (long) value;
+        this.doubleValue = value;
+        this.bigValue = null;
+        this.isInteger = false;
+    }
+
+    private MyNumber(BigInteger value) {
+        this.longValue = value.longValue();
+        this.doubleValue = value.doubleValue();
+        this.bigValue = value;
+        this.isInteger = true;
+    }
+
+    /**
+     * Get an integer with the given value, shared if it is small.
+     * @param value Given value.
+     * @return Integer with the given value.
+     */
+    public static MyNumber of(long value) {
+        if (value >= MIN_CACHED && value <= MAX_CACHED)
+            return SMALL_INTEGERS[(int) value - MIN_CACHED];
+        return new MyNumber(value);
+    }
+
+    /**
+     * Get a float with the given value.
+     * @param value Given value.
+     * @return Float with the given value.
+     */
+    public static MyNumber of(double value) {
+        return new MyNumber(value);
+    }
+
+    /**
+     * Create an integer out of the given BigInteger, which is a long if it fits one.
+     * @param value Given value.
+     * @return Integer with the given value.
+     */
+    public static MyNumber of(BigInteger value) {
+        return value.bitLength() < Long.SIZE ? of(value.longValue()) : new MyNumber(value);
+    }
+
+    /**
+     * Get the shared number equal to this number (see Interner).
+     * Small integers are always shared, so they are not kept by the Interner.
+     * @return Shared number.
+     */
+    public MyNumber intern() {
+        if (isInteger && bigValue == null && longValue >= MIN_CACHED && longValue <= MAX_CACHED)
+            return SMALL_INTEGERS[(int) longValue - MIN_CACHED];
+        return Interner.intern(this, number -> number);
+    }
+
+    /**
+     * Get the value of this number as a double (rounded for integers which do not fit a double exactly).
+     * @return Value of this number.
+     */
+    public double getValue() {
+        return doubleValue;
+    }
+
+    /**
+     * Get the value of an integer which fits a long (see isBig).
+     * @return Value of this number.
+     */
+    public long getLongValue() {
+        return longValue;
+    }
+
+    /**
+     * Get the value of an integer as a BigInteger.
+     * @return Value of this number.
+     */
+    public BigInteger getBigValue() {
+        return bigValue != null ? bigValue : BigInteger.valueOf(longValue);
+    }
+
+    public boolean isInteger() {
+        return isInteger;
+    }
+
+    /**
+     * Check whether this number is an integer which does not fit a long.
+     * @return true if the value of this number is a BigInteger.
+     */
+    public boolean isBig() {
+        return bigValue != null;
+    }
+
+    /**
+     * Apply an arithmetic instruction on two longs.
+     * @param opCode Arithmetic instruction (ADD, SUB, MUL, DIV or POW).
+     * @param x Left operand.
+     * @param y Right operand (not 0 for DIV).
+     * @return Result of the instruction, truncated to an integer.
+     * @throws ArithmeticException If the result overflows a long.
+     */
+    public static long arithmetic(OpCode opCode, long x, long y) {
+        switch (opCode) {
+            case ADD: {
+                long result = x + y;
+                if (((x ^ result) & (y ^ result)) < 0)
+                    throw OVERFLOW;
+                return result;
+            }
+            case SUB: {
+                long result = x - y;
+                if (((x ^ y) & (x ^ result)) < 0)
+                    throw OVERFLOW;
+                return result;
+            }
+            case MUL: return multiply(x, y);
+            case DIV:
+                if (x == Long.MIN_VALUE && y == -1)
+                    throw OVERFLOW;
+                return x / y;
+            case POW: return power(x, y);
+            default: throw new IllegalStateException("Unexpected instruction " + opCode);
+        }
+    }
+
+    /**
+     * Multiply two longs, like Math.multiplyExact.
+     * @param x Left operand.
+     * @param y Right operand.
+     * @return x * y.
+     * @throws ArithmeticException If the result overflows a long.
+     */
+    private static long multiply(long x, long y) {
+        long result = x * y;
+        if (((Math.abs(x) | Math.abs(y)) >>> 31 != 0) && ((y != 0 && result / y != x) || (x == Long.MIN_VALUE && y == -1)))
+            throw OVERFLOW;
+        return result;
+    }
+
+    /**
+     * Apply an arithmetic instruction on two doubles.
+     * @param opCode Arithmetic instruction (ADD, SUB, MUL, DIV or POW).
+     * @param x Left operand.
+     * @param y Right operand.
+     * @return Result of the instruction.
+     */
+    public static double arithmetic(OpCode opCode, double x, double y) {
+        switch (opCode) {
+            case ADD: return x + y;
+            case SUB: return x - y;
+            case MUL: return x * y;
+            case DIV: return x / y;
+            case POW: return Math.pow(x, y);
+            default: throw new IllegalStateException("Unexpected instruction " + opCode);
+        }
+    }
+
+    /**
+     * Apply an arithmetic instruction on two BigIntegers.
+     * @param opCode Arithmetic instruction (ADD, SUB, MUL, DIV or POW).
+     * @param x Left operand.
+     * @param y Right operand (not 0 for DIV).
+     * @return Result of the instruction, truncated to an integer.
+     * @throws ArithmeticException If the result of POW has more than MAX_POWER_BITS bits.
+     */
+    public static BigInteger arithmetic(OpCode opCode, BigInteger x, BigInteger y) {
+        switch (opCode) {
+            case ADD: return x.add(y);
+            case SUB: return x.subtract(y);
+            case MUL: return x.multiply(y);
+            case DIV: return x.divide(y);
+            case POW: return power(x, y);
+            default: throw new IllegalStateException("Unexpected instruction " + opCode);
+        }
+    }
+
+    /**
+     * Raise a long to the power of a long by squaring.
+     * A negative exponent gives a fraction, which is truncated like Math.pow cast to a long.
+     * @param x Base.
+     * @param y Exponent.
+     * @return x ^ y.
+     * @throws ArithmeticException If the result overflows a long.
+     */
+    public static long power(long x, long y) {
+        if (y < 0)
+            return (long) Math.pow(x, y);
+        long result = 1;
+        while (true) {
+            if ((y & 1) != 0)
+                result = multiply(result, x);
+            y >>= 1;
+            if (y == 0)
+                return result;
+            x = multiply(x, x);
+        }
+    }
+
+    /**
+     * Raise a BigInteger to the power of a BigInteger.
+     * @param x Base.
+     * @param y Exponent.
+     * @return x ^ y.
+     * @throws ArithmeticException If the result would have more than about MAX_POWER_BITS bits.
+     */
+    private static BigInteger power(BigInteger x, BigInteger y) {
+        if (y.signum() < 0)
+            return BigInteger.valueOf((long) Math.pow(x.doubleValue(), y.doubleValue()));
+        // The powers of 0, 1 and -1 only depend on whether the exponent is 0, odd or even
+        if (x.abs().compareTo(BigInteger.ONE) <= 0)
+            return BigInteger.valueOf(power(x.longValue(), y.signum() == 0 ? 0 : y.testBit(0) ? 1 : 2));
+        // |x| >= 2, so the result has at least y bits
+        if (y.bitLength() >= Integer.SIZE || (long) x.bitLength() * y.intValue() > MAX_POWER_BITS)
+            throw INTEGER_TOO_LARGE;
+        return x.pow(y.intValue());
+    }
+
+    /**
+     * Apply a comparison instruction.
+     * @param opCode Comparison instruction.
+     * @param comparison Negative, zero or positive, as the left operand is less than, equal to, or greater than the right one.
+     * @return Result of the comparison.
+     */
+    private static boolean compare(OpCode opCode, int comparison) {
+        switch (opCode) {
+            case EQ: return comparison == 0;
+            case NEQ: return comparison != 0;
+            case LT: return comparison < 0;
+            case LTE: return comparison <= 0;
+            case GT: return comparison > 0;
+            case GTE: return comparison >= 0;
+            default: throw new IllegalStateException("Unexpected instruction " + opCode);
+        }
+    }
+
+    /**
+     * Apply a comparison instruction on two longs.
+     * @param opCode Comparison instruction.
+     * @param x Left operand.
+     * @param y Right operand.
+     * @return Result of the comparison.
+     */
+    public static boolean compare(OpCode opCode, long x, long y) {
+        return compare(opCode, Long.compare(x, y));
+    }
+
+    /**
+     * Apply a comparison instruction on two doubles, following the rules of Java (comparisons with NaN are false).
+     * @param opCode Comparison instruction.
+     * @param x Left operand.
+     * @param y Right operand.
+     * @return Result of the comparison.
+     */
+    public static boolean compare(OpCode opCode, double x, double y) {
+        switch (opCode) {
+            case EQ: return x == y;
+            case NEQ: return x != y;
+            case LT: return x < y;
+            case LTE: return x <= y;
+            case GT: return x > y;
+            case GTE: return x >= y;
+            default: throw new IllegalStateException("Unexpected instruction " + opCode);
+        }
+    }
+
+    /**
+     * Helper method for all binary arithmetic operations between numbers.
+     * Integers are computed on longs, and on BigIntegers if either operand is one or the result overflows a long.
+     * @param opCode Arithmetic instruction.
+     * @param other Second operand.
+     * @return Result of the operation on this and the other operand.
+     * @throws ArithmeticException If the result of POW is too large.
+     */
+    private MyNumber arithmetic(OpCode opCode, MyNumber other) {
+        if (!isInteger || !other.isInteger)
+            return of(arithmetic(opCode, doubleValue, other.doubleValue));
+        if (bigValue == null && other.bigValue == null) {
+            try {
+                return of(arithmetic(opCode, longValue, other.longValue));
+            } catch (ArithmeticException e) {
+                // Overflowed a long, so it is computed again on BigIntegers
+            }
+        }
+        return of(arithmetic(opCode, getBigValue(), other.getBigValue()));
+    }
+
+    /**
+     * Get this number as the operand of a logical operation.
+     * @return This number as a boolean.
+     * @throws ArithmeticException If this number is not a boolean.
+     */
+    public MyBoolean toBoolean() {
+        throw NOT_A_BOOLEAN;
+    }
+
+     /**
+     * Number negation.
+     * @return Number with the value of -this.
+     */
+    public MyNumber neg() {
+        if (!isInteger)
+            return of(-doubleValue);
+        if (bigValue == null && longValue != Long.MIN_VALUE)
+            return of(-longValue);
+        return of(getBigValue().negate());
+    }
+
+    /**
+     * Number identity.
+     * @return This number, which is immutable.
+     */
+    public MyNumber id() {
+        return this;
+    }
+
+    /**
+     * Number addition.
+     * @param other Second operand.
+     * @return New number with the value of this + other.
+     */
+    public MyNumber add(MyNumber other) {
+        return arithmetic(OpCode.ADD, other);
+    }
+
+    /**
+     * Number subtraction.
+     * @param other Second operand.
+     * @return New number with the value of this - other.
+     */
+    public MyNumber sub(MyNumber other) {
+        return arithmetic(OpCode.SUB, other);
+    }
+
+    /**
+     * Number multiplication.
+     * @param other Second operand.
+     * @return New number with the value of this * other.
+     */
+    public MyNumber mul(MyNumber other) {
+        return arithmetic(OpCode.MUL, other);
+    }
+
+    /**
+     * Number Division.
+     * Division of two integers is truncated to an integer.
+     * @param other Denominator.
+     * @return New number with the value of this / denominator.
+     * @throws ArithmeticException In case of division by zero.
+     */
+    public MyNumber div(MyNumber other) {
+        if (other.doubleValue == 0)
+            throw DIVISION_BY_ZERO;
+        return arithmetic(OpCode.DIV, other);
+    }
+
+    /**
+     * Numer exponentiation.
+     * Integer exponents are computed by squaring, so integer powers are exact.
+     * @param other Exponent.
+     * @return New number with the value of this ^ other.
+     * @throws ArithmeticException If the result is an integer of more than MAX_POWER_BITS bits.
+     */
+    public MyNumber pow(MyNumber other) {
+        return arithmetic(OpCode.POW, other);
+    }
+
+    /**
+     * Helper method for comparing numbers.
+     * Integers are compared exactly, and are compared to floats as doubles.
+     * @param opCode Comparison instruction.
+     * @param other Second operand.
+     * @return TRUE or FALSE.
+     */
+    private MyBoolean compare(OpCode opCode, MyNumber other) {
+        boolean result;
+        if (!isInteger || !other.isInteger)
+            result = compare(opCode, doubleValue, other.doubleValue);
+        else if (bigValue == null && other.bigValue == null)
+            result = compare(opCode, longValue, other.longValue);
+        else
+            result = compare(opCode, getBigValue().compareTo(other.getBigValue()));
+        return MyBoolean.valueOf(result);
+    }
+
+    /**
+     * Check if this number equals to another.
+     * @param other Other number.
+     * @return Number with value of 1 if this == other. Otherwise, number with value of 0.
+     */
+    public MyNumber eq(MyNumber other) {
+        return compare(OpCode.EQ, other);
+    }
+
+    /**
+     * Check if this number does not equal to another.
+     * @param other Other number.
+     * @return Number with value of 1 if this != other. Otherwise, number with value of 0.
+     */
+    public MyNumber neq(MyNumber other) {
+        return compare(OpCode.NEQ, other);
+    }
+
+    /**
+     * Check if this number is less than another.
+     * @param other Other number.
+     * @return Numebr with value of 1 if this < other. Otherwise, number with value of 0.
+     */
+    public MyNumber lt(MyNumber other) {
+        return compare(OpCode.LT, other);
+    }
+
+    /**
+     * Check if this number is less than or equals to another.
+     * @param other Other number.
+     * @return Number with value of 1 if this <= other. Otherwise, number with value of 0.
+     */
+    public MyNumber lte(MyNumber other) {
+        return compare(OpCode.LTE, other);
+    }
+
+    /**
+     * Check if this number is greater than another.
+     * @param other Other number.
+     * @return Number with value of 1 if this > other. Otherwise, number with value of 0.
+     */
+    public MyNumber gt(MyNumber other) {
+        return compare(OpCode.GT, other);
+    }
+
+    /**
+     * Check if this number is greater than or equals to another.
+     * @param other Other number.
+     * @return Number with value of 1 if this >= other. Otherwise, number with value of 0.
+     */
+    public MyNumber gte(MyNumber other) {
+        return compare(OpCode.GTE, other);
+    }
+
+    /**
+     * Apply a binary instruction with this number as the left operand.
+     * @param opCode Binary instruction.
+     * @param other Right operand.
+     * @return Result of the instruction.
+     * @throws ArithmeticException In case of division by zero, a power which is too large, or a logical operation on a
+     *                             value which is not a boolean.
+     */
+    public MyNumber apply(OpCode opCode, MyNumber other) {
+        switch (opCode) {
+            case ADD: return add(other);
+            case SUB: return sub(other);
+            case MUL: return mul(other);
+            case DIV: return div(other);
+            case POW: return pow(other);
+            case EQ: return eq(other);
+            case NEQ: return neq(other);
+            case LT: return lt(other);
+            case LTE: return lte(other);
+            case GT: return gt(other);
+            case GTE: return gte(other);
+            case AND: return toBoolean().and(other.toBoolean());
+            case OR: return toBoolean().or(other.toBoolean());
+            default: throw new IllegalStateException("Unexpected instruction " + opCode);
+        }
+    }
+
+    /**
+     * Check whether the given object is a number of the same kind and value.
+     * Floats are compared as by Double.equals, so NaN equals itself and 0.0 does not equal -0.0.
+     * @param obj Given object.
+     * @return true if the object is an equal number.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || obj.getClass() != getClass())
+            return false;
+        MyNumber other = (MyNumber) obj;
+        if (isInteger != other.isInteger)
+            return false;
+        if (!isInteger)
+            return Double.compare(doubleValue, other.doubleValue) == 0;
+        return longValue == other.longValue && Objects.equals(bigValue, other.bigValue);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!isInteger)
+            return Double.hashCode(doubleValue);
+        return bigValue != null ? bigValue.hashCode() : Long.hashCode(longValue);
+    }
+
+    @Override
+    public String toString() {
+        if (!isInteger)
+            return Double.toString(doubleValue);
+        return bigValue != null ? bigValue.toString() : Long.toString(longValue);
+    }
+}
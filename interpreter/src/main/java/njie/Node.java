@@ -0,0 +1,168 @@
+package njie;
+
+/**
+ * As the grammar rules can be understood as a tree, we create node classes.
+ * This class is an abstract superclass for all other nodes.
+ * Nodes are immutable (but for the chunk and the profile kept on the roots which are compiled), and visiting a node never
+ * changes a value it did not create, so the same tree can be visited by several threads at once, as long as each thread
+ * writes to its own symbol table.
+ * @see BinOpNode
+ * @see NumberNode
+ * @author Gil-Ad Shay.
+ */
+public abstract class Node {
+    // Computed once, so asking for them does not walk the tree.
+    // The span is kept as offsets, as a node never crosses its source, and positions are only created when asked for.
+    private final Source source;
+    private final int start;
+    private final int end;
+    private final int depth;
+    // Visits and compiled code of the tree of this node, when the JIT visits it. Kept on the node rather than in a shared
+    // map, so threads visiting different trees do not contend.
+    private volatile JitCompiler.Profile profile;
+    // Chunk compiled from the tree of this node, when it runs on the virtual machine.
+    private volatile Chunk chunk;
+
+    /**
+     * Initialize a new node.
+     * @param start Starting position of the node.
+     * @param end Ending position of the node, in the source of the starting position.
+     * @param depth Depth of the tree of the node (1 for a leaf).
+     */
+    protected Node(Position start, Position end, int depth) {
+        this.source = start == null ? null : start.getSource();
+        this.start = start == null ? -1 : start.getIdx();
+        this.end = end == null ? -1 : end.getIdx();
+        this.depth = depth;
+    }
+
+    @Override
+    public abstract String toString();
+
+    JitCompiler.Profile getProfile() {
+        return profile;
+    }
+
+    void setProfile(JitCompiler.Profile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Get the chunk compiled from the tree of this node, compiling it on first use.
+     * Threads racing here may each compile the tree, and keep either chunk, as they are the same.
+     * @return Chunk of the tree.
+     */
+    Chunk getChunk() {
+        Chunk result = chunk;
+        if (result == null)
+            chunk = result = Compiler.compile(this);
+        return result;
+    }
+
+    /**
+     * Visit current node and calculate its value.
+     * @param context Context of the visit for tracking errors.
+     * @return Number with the result of the visit.
+     * @throws RuntimeError If there is a runtime error during the run of the program.
+     */
+    public abstract MyNumber visit(Context context) throws RuntimeError;
+
+    /**
+     * Calculate the value of this node without allocating numbers, pushing it on top of the given frame.
+     * @param frame Frame holding the operand stack and the context of the evaluation.
+     * @throws RuntimeError If there is a runtime error during the run of the program.
+     */
+    public abstract void evaluate(Frame frame) throws RuntimeError;
+
+    /**
+     * Calculate the value of this node for every row of the given batch.
+     * @param batch Batch binding variables to columns.
+     * @return Column with the value of every row.
+     * @throws RuntimeError If there is a runtime error in any row.
+     */
+    public abstract Column visit(Batch batch) throws RuntimeError;
+
+    /**
+     * Get the number of children of this node.
+     * @return Number of children.
+     */
+    public abstract int getChildCount();
+
+    /**
+     * Get a child of this node.
+     * @param idx Index of the child, in the order the children are evaluated.
+     * @return Child at the given index.
+     */
+    public abstract Node getChild(int idx);
+
+    /**
+     * Emit the instructions of this node which come before the given child, or after all children.
+     * The compiler walks the tree itself (see Compiler.compile), so deep trees are compiled without recursion.
+     * @param compiler Compiler collecting the instructions.
+     * @param step Index of the child about to be compiled. The number of children once all of them are compiled.
+     */
+    public abstract void compile(Compiler compiler, int step);
+
+    /**
+     * Fold the constant subtrees of this node.
+     * @param optimizer Optimizer of the pass.
+     * @return Folded node (this node if nothing was folded).
+     */
+    public abstract Node fold(Optimizer optimizer);
+
+    /**
+     * Get what this node computes out of its children, so nodes which compute the same out of identical children are
+     * identical (see Optimizer.share).
+     * @return Operation of this node, comparable by equals. null if this node assigns variables, so it is never shared.
+     */
+    public abstract Object getOperation();
+
+    /**
+     * Check whether the given child is evaluated whenever this node is, rather than depending on the values of the
+     * children before it (as the right operand of AND and OR).
+     * @param idx Index of the child.
+     * @return true if the child is always evaluated.
+     */
+    public boolean isAlwaysEvaluated(int idx) {
+        return true;
+    }
+
+    /**
+     * Create a node of the same operation as this node out of the given children.
+     * @param children New children, in the order of getChild.
+     * @return Node with the given children.
+     */
+    public abstract Node withChildren(Node[] children);
+
+    /**
+     * Add this node to the given image, after its children (see ScriptImage.Writer).
+     * @param writer Writer of the image.
+     * @throws IllegalArgumentException If this node is not made by the parser, as only parsed trees are written.
+     */
+    public abstract void write(ScriptImage.Writer writer);
+
+    /**
+     * Get the starting position for this node.
+     * @return Starting position of this node.
+     */
+    public Position getStart() {
+        return source == null ? null : new Position(source, start);
+    }
+
+    /**
+     * Get the ending position for this node.
+     * @return Ending position for this node.
+     */
+    public Position getEnd() {
+        return source == null ? null : new Position(source, end);
+    }
+
+    /**
+     * Get the depth of the tree of this node, which bounds the recursion of visiting it.
+     * @return Depth of the tree (1 for a leaf).
+     */
+    public int getDepth() {
+        return depth;
+    }
+}
+
@@ -0,0 +1,78 @@
+package njie;
+
+/**
+ * Class for node which represents a number.
+ * @author Gil-Ad Shay.
+ */
+public class NumberNode extends Node {
+    // Only the value of the token is kept, shared with the literals of other trees (see Interner).
+    private final MyNumber value;
+
+    /**
+     * Initialize a new NumberNode with the given number.
+     * @param number ValueableToken of type INT or FLOAT.
+     */
+    public NumberNode(NumericToken number) {
+        super(number.getStart(), number.getEnd(), 1);
+        this.value = number.getValue().intern();
+    }
+
+    public MyNumber getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%s", value.isInteger() ? Token.Type.INT : Token.Type.FLOAT, value);
+    }
+
+    @Override
+    public MyNumber visit(Context context) {
+        return value;
+    }
+
+    @Override
+    public void evaluate(Frame frame) {
+        frame.push(value);
+    }
+
+    @Override
+    public Column visit(Batch batch) {
+        return Column.scalar(value);
+    }
+
+    @Override
+    public int getChildCount() {
+        return 0;
+    }
+
+    @Override
+    public Node getChild(int idx) {
+        throw new IndexOutOfBoundsException(idx);
+    }
+
+    @Override
+    public void compile(Compiler compiler, int step) {
+        compiler.emit(OpCode.CONST, compiler.addConstant(value), this);
+    }
+
+    @Override
+    public Object getOperation() {
+        return value;
+    }
+
+    @Override
+    public Node withChildren(Node[] children) {
+        return this;
+    }
+
+    @Override
+    public void write(ScriptImage.Writer writer) {
+        writer.writeNumber(value, this);
+    }
+
+    @Override
+    public Node fold(Optimizer optimizer) {
+        return this;
+    }
+}
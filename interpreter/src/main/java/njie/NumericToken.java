@@ -1,4 +1,4 @@
-import java.util.Objects;
+package njie;
 
 /**
  * INT and FLOAT Token.
@@ -14,23 +14,25 @@ public class NumericToken extends Token {
      * Initialize a new ValueableToken with the given type and given value.
      * @param type Given type.
      * @param value Given value. 
-     * @param start Starting position.
-     * @param end Ending position.
+     * @param source Source of the token.
+     * @param start Starting offset.
+     * @param end Ending offset.
      */
-    public NumericToken(Token.Type type, MyNumber value, Position start, Position end) {
-        super(type, start, end);
+    public NumericToken(Token.Type type, MyNumber value, Source source, int start, int end) {
+        super(type, source, start, end);
         this.number = value;
     }
 
     /**
      * Initialize a new ValueableToken with the given type and value.
-     * Ending position is starting position + 1.
+     * Ending offset is starting offset + 1.
      * @param type Given type.
      * @param value Given value.
-     * @param start Starting position.
+     * @param source Source of the token.
+     * @param start Starting offset.
      */
-    public NumericToken(Token.Type type, MyNumber value, Position start) {
-        super(type, start);
+    public NumericToken(Token.Type type, MyNumber value, Source source, int start) {
+        super(type, source, start);
         this.number = value;
     }
 
@@ -55,6 +57,6 @@ public class NumericToken extends Token {
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), number.hashCode());
+        return 31 * super.hashCode() + number.hashCode();
     }
 }
@@ -0,0 +1,39 @@
+package njie;
+
+/**
+ * Instructions of the virtual machine.
+ * @see VirtualMachine
+ * @author Gil-Ad Shay.
+ */
+public enum OpCode {
+    // Push a constant (operand is the index in the constant pool).
+    CONST,
+    // Push the value of a variable (operand is the slot of the variable).
+    LOAD,
+    // Assign the top of the stack to a variable without popping it (operand is the slot of the variable).
+    STORE,
+
+    ADD,
+    SUB,
+    MUL,
+    DIV,
+    POW,
+
+    EQ,
+    NEQ,
+    LT,
+    LTE,
+    GT,
+    GTE,
+
+    AND,
+    OR,
+    // Jump to the operand (an instruction index) if the top of the stack is FALSE (or TRUE), leaving it as the result.
+    // Otherwise, go on without popping it. Used for skipping the right operand of AND (or OR).
+    JUMP_IF_FALSE,
+    JUMP_IF_TRUE,
+
+    NEG,
+    NOT,
+    ID
+}
@@ -0,0 +1,262 @@
+package njie;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optimizer pass between parsing and interpreting.
+ * Folds constant subtrees into single literals and inlines the constants of the symbol table (NULL, TRUE and FALSE).
+ * Folded literals keep the span of the subtree they replace, so errors are reported at the original position.
+ * Then shares the subtrees which appear several times (common subexpressions), so each is evaluated once.
+ * @author Gil-Ad Shay.
+ */
+public class Optimizer {
+    private final SymbolTable constants;
+    private final Context context;
+    // Number of nodes removed from the last tree by sharing its identical subtrees.
+    private int removedCount;
+
+    /**
+     * Initialize a new optimizer.
+     * @param constants Symbol table whose constants are inlined.
+     */
+    public Optimizer(SymbolTable constants) {
+        this.constants = constants;
+        this.context = new Context("<optimizer>", new SymbolTable());
+    }
+
+    /**
+     * Optimize the given tree.
+     * Folding is recursive, so trees deeper than Interpreter.MAX_RECURSION_DEPTH are left as they are.
+     * @param node Root of the tree.
+     * @return Root of the optimized tree (the given root if nothing was optimized).
+     */
+    public Node optimize(Node node) {
+        if (node.getDepth() > Interpreter.MAX_RECURSION_DEPTH) {
+            removedCount = 0;
+            return node;
+        }
+        return share(node.fold(this));
+    }
+
+    /**
+     * Get the number of nodes removed from the last optimized tree by sharing its identical subtrees.
+     * @return Number of nodes in the occurrences of shared subtrees which were replaced by the shared one.
+     */
+    public int getRemovedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Share the identical subtrees of the given tree, so each is evaluated once per evaluation of the tree.
+     * Subtrees are hash-consed: a subtree is identified by the operation of its root and the ids of its children, so
+     * identical subtrees get the same id. An occurrence of a subtree which appears more than once becomes a SharedNode of
+     * an earlier occurrence, and the tree becomes a DAG (see DagNode).
+     * An occurrence is only shared with an earlier one which is evaluated whenever it is, so an occurrence skipped by AND
+     * or OR is never the one whose value, or error, the later occurrences get.
+     * A variable may change between two occurrences across an assignment, so assignments are barriers: the subtrees
+     * without assignments (such as the value of an assignment) are shared each on its own.
+     * Sharing is recursive, so trees deeper than Interpreter.MAX_RECURSION_DEPTH are left as they are.
+     * @param node Root of the tree.
+     * @return Root of the tree with DAGs, or the given root if no subtree is shared.
+     */
+    public Node share(Node node) {
+        removedCount = 0;
+        if (node.getDepth() > Interpreter.MAX_RECURSION_DEPTH)
+            return node;
+        Sharing sharing = new Sharing();
+        sharing.identify(node);
+        return share(node, sharing);
+    }
+
+    /**
+     * Share the identical subtrees of each of the largest subtrees of the given tree which do not assign variables.
+     * @param node Root of the tree.
+     * @param sharing Sharing which identified the tree.
+     * @return Root of the tree with DAGs.
+     */
+    private Node share(Node node, Sharing sharing) {
+        if (sharing.ids.containsKey(node)) {
+            Sharing.Scope scope = sharing.new Scope();
+            scope.count(node);
+            Node root = scope.rebuild(node);
+            if (scope.removedCount == 0)
+                return node;
+            removedCount += scope.removedCount;
+            return new DagNode(root, scope.nodes.size());
+        }
+        Node[] children = new Node[node.getChildCount()];
+        boolean isChanged = false;
+        for (int i = 0; i < children.length; i++) {
+            children[i] = share(node.getChild(i), sharing);
+            isChanged |= children[i] != node.getChild(i);
+        }
+        return isChanged ? node.withChildren(children) : node;
+    }
+
+    /**
+     * Ids of the subtrees of a single tree.
+     */
+    private static class Sharing {
+        // Id of every key, where a key is the class and operation of a node and the ids of its children.
+        private final Map<List<Object>, Integer> keys = new HashMap<>();
+        // Subtrees which assign variables have no id.
+        private final Map<Node, Integer> ids = new IdentityHashMap<>();
+        // Indexed by id.
+        private final List<Integer> sizes = new ArrayList<>();
+
+        /**
+         * Give the given subtree and its subtrees their ids.
+         * @param node Root of the subtree.
+         * @return Id of the subtree. -1 if it assigns variables.
+         */
+        private int identify(Node node) {
+            Object operation = node.getOperation();
+            List<Object> key = new ArrayList<>();
+            key.add(node.getClass());
+            key.add(operation);
+            int size = 1;
+            for (int i = 0; i < node.getChildCount(); i++) {
+                int child = identify(node.getChild(i));
+                if (child < 0)
+                    operation = null;
+                else
+                    size += sizes.get(child);
+                key.add(child);
+            }
+            if (operation == null)
+                return -1;
+            Integer id = keys.get(key);
+            if (id == null) {
+                id = keys.size();
+                keys.put(key, id);
+                sizes.add(size);
+            }
+            ids.put(node, id);
+            return id;
+        }
+
+        /**
+         * State of sharing the identical subtrees of a subtree which does not assign variables.
+         */
+        private class Scope {
+            private final Map<Integer, Integer> counts = new HashMap<>();
+            // Shared nodes of every id, each with the region it was evaluated in.
+            private final Map<Integer, List<int[]>> candidates = new HashMap<>();
+            // Shared nodes, indexed by their index.
+            private final List<Node> nodes = new ArrayList<>();
+            private int removedCount;
+            // Regions are the subtrees which are only evaluated depending on the values of other subtrees (see
+            // Node.isAlwaysEvaluated), and the root. Open regions are those containing the node being rebuilt, which
+            // are evaluated whenever the node is.
+            private final Set<Integer> openRegions = new HashSet<>(Set.of(0));
+            private int region;
+            private int regionCount;
+
+            /**
+             * Count the occurrences of every subtree, not counting the subtrees of an occurrence which is not the first.
+             * @param node Root of the subtree.
+             */
+            private void count(Node node) {
+                int count = counts.merge(ids.get(node), 1, Integer::sum);
+                if (count > 1)
+                    return;
+                for (int i = 0; i < node.getChildCount(); i++)
+                    count(node.getChild(i));
+            }
+
+            /**
+             * Rebuild the given subtree, replacing the occurrences of subtrees which appear more than once by shared
+             * nodes.
+             * @param node Root of the subtree.
+             * @return Rebuilt subtree.
+             */
+            private Node rebuild(Node node) {
+                int id = ids.get(node);
+                if (counts.get(id) < 2 || node.getChildCount() == 0)
+                    return rebuildChildren(node);
+
+                List<int[]> shared = candidates.computeIfAbsent(id, key -> new ArrayList<>());
+                for (int i = shared.size() - 1; i >= 0; i--) {
+                    if (openRegions.contains(shared.get(i)[1])) {
+                        int index = shared.get(i)[0];
+                        removedCount += sizes.get(id);
+                        return new SharedNode(nodes.get(index), index, node);
+                    }
+                }
+                Node rebuilt = rebuildChildren(node);
+                shared.add(new int[] {nodes.size(), region});
+                nodes.add(rebuilt);
+                return new SharedNode(rebuilt, nodes.size() - 1, node);
+            }
+
+            private Node rebuildChildren(Node node) {
+                Node[] children = new Node[node.getChildCount()];
+                boolean isChanged = false;
+                for (int i = 0; i < children.length; i++) {
+                    if (node.isAlwaysEvaluated(i)) {
+                        children[i] = rebuild(node.getChild(i));
+                    } else {
+                        int outer = region;
+                        region = ++regionCount;
+                        openRegions.add(region);
+                        children[i] = rebuild(node.getChild(i));
+                        openRegions.remove(region);
+                        region = outer;
+                    }
+                    isChanged |= children[i] != node.getChild(i);
+                }
+                return isChanged ? node.withChildren(children) : node;
+            }
+        }
+    }
+
+    /**
+     * Get the value of a constant.
+     * @param name Name of the constant.
+     * @return Value of the constant. null if there is no constant with the given name.
+     */
+    public MyNumber getConstant(String name) {
+        return constants.isConstant(name) ? constants.get(name) : null;
+    }
+
+    /**
+     * Check whether the given node is a literal.
+     * @param node Given node.
+     * @return true if the node is a literal.
+     */
+    public static boolean isLiteral(Node node) {
+        return node instanceof NumberNode;
+    }
+
+    /**
+     * Create a literal node.
+     * @param value Value of the literal.
+     * @param span Node whose span is given to the literal.
+     * @return Literal with the given value at the span of the given node.
+     */
+    public NumberNode literal(MyNumber value, Node span) {
+        Token.Type type = value.isInteger() ? Token.Type.INT : Token.Type.FLOAT;
+        Position start = span.getStart();
+        return new NumberNode(new NumericToken(type, value, start.getSource(), start.getIdx(), span.getEnd().getIdx()));
+    }
+
+    /**
+     * Try replacing the given node, whose operands are all literals, with a literal.
+     * @param node Given node.
+     * @return Literal with the value of the node, or the node itself if evaluating it fails.
+     */
+    public Node tryFold(Node node) {
+        try {
+            return literal(node.visit(context), node);
+        } catch (RuntimeError e) {
+            // Leave the node, so the error is raised when the program runs.
+            return node;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package njie;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class for spreading many evaluations across the threads of a fork-join pool.
+ * Every evaluation runs in its own context, with a symbol table of its own whose parent is shared by all evaluations.
+ * The shared parent is only read, so it must not be changed while evaluating.
+ * @author Gil-Ad Shay.
+ */
+public class ParallelEvaluator {
+    // Minimal number of evaluations worth running as a separate task.
+    private static final int MIN_TASK_SIZE = 64;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Initialize a new parallel evaluator running on the given pool.
+     * @param pool Pool of threads.
+     */
+    public ParallelEvaluator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Initialize a new parallel evaluator running on the common pool (one thread per core).
+     */
+    public ParallelEvaluator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Interface for a single evaluation.
+     */
+    @FunctionalInterface
+    private interface Evaluation {
+        public MyNumber evaluate(int idx) throws RuntimeError;
+    }
+
+    /**
+     * Wrapper for carrying a runtime error out of a fork-join task.
+     */
+    private static class EvaluationFailure extends RuntimeException {
+        private final RuntimeError error;
+
+        EvaluationFailure(RuntimeError error) {
+            super(null, null, false, false);
+            this.error = error;
+        }
+    }
+
+    /**
+     * Task running the evaluations in a range of indices, splitting it in halves while it is large enough.
+     */
+    private static class EvaluationTask extends RecursiveAction {
+        private final Evaluation evaluation;
+        private final MyNumber[] results;
+        private final int from;
+        private final int to;
+        private final int taskSize;
+
+        EvaluationTask(Evaluation evaluation, MyNumber[] results, int from, int to, int taskSize) {
+            this.evaluation = evaluation;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.taskSize = taskSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > taskSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new EvaluationTask(evaluation, results, from, middle, taskSize),
+                          new EvaluationTask(evaluation, results, middle, to, taskSize));
+                return;
+            }
+            try {
+                for (int i = from; i < to; i++)
+                    results[i] = evaluation.evaluate(i);
+            } catch (RuntimeError e) {
+                throw new EvaluationFailure(e);
+            }
+        }
+    }
+
+    /**
+     * Run the given number of evaluations in parallel.
+     * @param count Number of evaluations.
+     * @param evaluation Evaluation of a given index.
+     * @return Results of the evaluations, by index.
+     * @throws RuntimeError If any evaluation fails (the error of one of the failing evaluations is thrown).
+     */
+    private MyNumber[] run(int count, Evaluation evaluation) throws RuntimeError {
+        MyNumber[] results = new MyNumber[count];
+        // Enough tasks for balancing the load between the threads, but not so many that splitting costs more than evaluating.
+        int taskSize = Math.max(MIN_TASK_SIZE, count / (pool.getParallelism() * 8));
+        try {
+            pool.invoke(new EvaluationTask(evaluation, results, 0, count, taskSize));
+        } catch (EvaluationFailure e) {
+            throw e.error;
+        }
+        return results;
+    }
+
+    /**
+     * Evaluate one tree once for every given symbol table.
+     * @param node Root of the tree.
+     * @param bindings Symbol table of every evaluation (usually children of a shared global symbol table).
+     * @return Result of every evaluation, in the order of the given symbol tables.
+     * @throws RuntimeError If any evaluation fails.
+     */
+    public MyNumber[] evaluate(Node node, SymbolTable[] bindings) throws RuntimeError {
+        if (Interpreter.getEngine() == Interpreter.Engine.VIRTUAL_MACHINE) {
+            Chunk chunk = node.getChunk();
+            return run(bindings.length, i -> Interpreter.visit(chunk, new Context("<program>", bindings[i])));
+        }
+        return run(bindings.length, i -> Interpreter.visit(node, new Context("<program>", bindings[i])));
+    }
+
+    /**
+     * Evaluate every given tree, each in a context of its own.
+     * Assignments of an evaluation go to its own symbol table, so they are not seen by the other evaluations.
+     * @param nodes Roots of the trees.
+     * @param globals Symbol table shared by all evaluations, only read.
+     * @return Result of every evaluation, in the order of the given trees.
+     * @throws RuntimeError If any evaluation fails.
+     */
+    public MyNumber[] evaluate(Node[] nodes, SymbolTable globals) throws RuntimeError {
+        return run(nodes.length, i -> Interpreter.visit(nodes[i], new Context("<program>", new SymbolTable(globals))));
+    }
+}
@@ -0,0 +1,356 @@
+package njie;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class for parsing tokens into tree.
+ * Tokens are pulled from a TokenStream, so errors of a streaming lexer are thrown while parsing.
+ * @author Gil-Ad Shay.
+ */
+public class Parser {
+    // Precedence levels of binary operators, from the loosest.
+    private static final int NONE = 0;
+    private static final int LOGICAL = 1;
+    private static final int COMPARISON = 2;
+    private static final int ARITHMETIC = 3;
+    private static final int TERM = 4;
+    private static final int[] LEVELS = new int[Token.Type.values().length];
+
+    static {
+        LEVELS[Token.Type.EQUALS.ordinal()] = COMPARISON;
+        LEVELS[Token.Type.NOT_EQUALS.ordinal()] = COMPARISON;
+        LEVELS[Token.Type.LESS_THAN.ordinal()] = COMPARISON;
+        LEVELS[Token.Type.GREATER_THAN.ordinal()] = COMPARISON;
+        LEVELS[Token.Type.LESS_THAN_OR_EQUALS.ordinal()] = COMPARISON;
+        LEVELS[Token.Type.GREATER_THAN_OR_EQUALS.ordinal()] = COMPARISON;
+        LEVELS[Token.Type.PLUS.ordinal()] = ARITHMETIC;
+        LEVELS[Token.Type.MIN.ordinal()] = ARITHMETIC;
+        LEVELS[Token.Type.MUL.ordinal()] = TERM;
+        LEVELS[Token.Type.DIV.ordinal()] = TERM;
+    }
+
+    /**
+     * Rules of the grammar (see expr). CHAIN is a chain of binary operations, and OPERAND is its first operand.
+     */
+    private enum Rule {
+        EXPR,
+        CHAIN,
+        OPERAND,
+        FACTOR,
+        POWER,
+        ATOM
+    }
+
+    private final TokenStream tokens;
+    private Token currentToken;
+    // Stack of the waiting rules, with the state of each: lowest level of the operators of a chain, left operand of a chain
+    // or a power, and pending token (binary operator, unary operator or name of an assigned variable).
+    private Rule[] rules = new Rule[16];
+    private int[] levels = new int[16];
+    private Node[] lefts = new Node[16];
+    private Token[] pending = new Token[16];
+    private int size;
+
+    /**
+     * Initialize new Parser with given tokens.
+     * @param tokens List of tokens.
+     */
+    public Parser(List<Token> tokens) {
+        this(new TokenStream() {
+            private int idx = 0;
+
+            @Override
+            public Token next() {
+                return idx < tokens.size() ? tokens.get(idx++) : tokens.get(tokens.size() - 1);
+            }
+        });
+    }
+
+    /**
+     * Initialize new Parser pulling its tokens from the given stream.
+     * Tokens are pulled one at a time, only when the parser reaches them.
+     * @param tokens Stream of tokens.
+     */
+    public Parser(TokenStream tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Advance to the next token.
+     */
+    private void advance() {
+        currentToken = null;
+    }
+
+    /**
+     * Get the current token, pulling it from the stream if needed.
+     * @return Current token.
+     * @throws IllegalCharError when the stream encounters an undefined character.
+     * @throws ExpectedCharError when the stream encounters '!' not followed by '='.
+     */
+    private Token getCurrentToken() throws IllegalCharError, ExpectedCharError {
+        if (currentToken == null)
+            currentToken = tokens.next();
+        return currentToken;
+    }
+
+    /**
+     * Check whether the given token is the given keyword.
+     * @param token Given token.
+     * @param keyword Given keyword.
+     * @return true if the token is the keyword.
+     */
+    private static boolean isKeyword(Token token, KeywordToken.Keyword keyword) {
+        return token.getType() == Token.Type.KEYWORD && ((KeywordToken) token).getKeyword() == keyword;
+    }
+
+    /**
+     * Get the precedence level of the given token as a binary operator (see grammar.md).
+     * ^ has no level, as it is parsed by power.
+     * @param token Given token.
+     * @return Level of the operator. NONE if the token is not a binary operator.
+     */
+    private static int levelOf(Token token) {
+        if (token.getType() == Token.Type.KEYWORD) {
+            KeywordToken.Keyword keyword = ((KeywordToken) token).getKeyword();
+            return keyword == KeywordToken.Keyword.AND || keyword == KeywordToken.Keyword.OR ? LOGICAL : NONE;
+        }
+        return LEVELS[token.getType().ordinal()];
+    }
+
+    /**
+     * Check whether the given token can start an expression (other than an assignment).
+     * @param token Given token.
+     * @return true if an expression can start with the token.
+     */
+    private static boolean startsExpression(Token token) {
+        switch (token.getType()) {
+            case INT:
+            case FLOAT:
+            case IDENTIFIER:
+            case LPAREN:
+            case PLUS:
+            case MIN:
+                return true;
+            default:
+                return isKeyword(token, KeywordToken.Keyword.NOT);
+        }
+    }
+
+    /**
+     * Push a rule which waits for the result of another rule.
+     * @param rule Waiting rule.
+     * @param level Lowest level of the operators of a chain.
+     * @param token Unary operator, or name of an assigned variable.
+     */
+    private void push(Rule rule, int level, Token token) {
+        if (size == rules.length) {
+            rules = Arrays.copyOf(rules, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+            lefts = Arrays.copyOf(lefts, size * 2);
+            pending = Arrays.copyOf(pending, size * 2);
+        }
+        rules[size] = rule;
+        levels[size] = level;
+        lefts[size] = null;
+        pending[size] = token;
+        size++;
+    }
+
+    /**
+     * Create the tree in the case of expr according to grammar rules (see grammar.md).
+     * Recall the rules are:
+     * expr:       VAR varname = expr
+     *             comp-expr ((AND | OR) comp-expr)*
+     * comp-expr:  NOT comp-expr
+     *             arith-expr ((== | != | < | > | <= | >=) arith-expr)*
+     * arith-expr: term ((+ | -) term)*
+     * term:       factor ((* | /) factor)*
+     * factor:     (+ | -) factor
+     *             power
+     * power:      atom (^ factor)*
+     * atom:       INT | FLOAT | IDENTIFIER | LPAREN expr RPAREN
+     * Chains of binary operations are parsed by precedence climbing (a chain of at least a given level).
+     * Rules which wait for another rule are kept on an explicit stack instead of the Java stack,
+     * so deeply nested expressions do not overflow it.
+     * @return Node with the tree of the expression.
+     * @throws InvalidSyntaxError Where encountering invalid syntax.
+     */
+    private Node expr() throws Error {
+        size = 0;
+        Rule rule = Rule.EXPR;
+        int level = NONE;
+        Node result = null;
+        while (true) {
+            if (rule == null) {
+                // Give the result to the rule waiting for it
+                if (size == 0)
+                    return result;
+                int top = size - 1;
+                switch (rules[top]) {
+                    // VAR varname = expr
+                    case EXPR:
+                        result = new VarAssignNode((IdentifierToken) pending[top], result);
+                        size--;
+                        break;
+                    // NOT comp-expr, or (+ | -) factor
+                    case OPERAND:
+                    case FACTOR:
+                        result = new UnOpNode(pending[top], result);
+                        size--;
+                        break;
+                    // LPAREN expr RPAREN
+                    case ATOM:
+                        if (getCurrentToken().getType() != Token.Type.RPAREN)
+                            throw new InvalidSyntaxError("Expected ')'", getCurrentToken().getStart(), getCurrentToken().getEnd());
+                        advance();
+                        size--;
+                        break;
+                    // A chain of binary operations of at least the level of the chain
+                    case CHAIN: {
+                        lefts[top] = pending[top] == null ? result : new BinOpNode(lefts[top], pending[top], result);
+                        int operatorLevel = levelOf(getCurrentToken());
+                        if (operatorLevel >= levels[top]) {
+                            pending[top] = getCurrentToken();
+                            advance();
+                            rule = operatorLevel == TERM ? Rule.FACTOR : Rule.CHAIN;
+                            level = operatorLevel + 1;
+                        } else {
+                            result = lefts[top];
+                            size--;
+                        }
+                        break;
+                    }
+                    // atom (^ factor)*
+                    case POWER:
+                        lefts[top] = pending[top] == null ? result : new BinOpNode(lefts[top], pending[top], result);
+                        if (getCurrentToken().getType() == Token.Type.POW) {
+                            pending[top] = getCurrentToken();
+                            advance();
+                            rule = Rule.FACTOR;
+                        } else {
+                            result = lefts[top];
+                            size--;
+                        }
+                        break;
+                }
+                continue;
+            }
+
+            Token currentToken = getCurrentToken();
+            switch (rule) {
+                case EXPR:
+                    // VAR varname = expr
+                    if (isKeyword(currentToken, KeywordToken.Keyword.VAR)) {
+                        advance();
+                        if (getCurrentToken().getType() != Token.Type.IDENTIFIER) {
+                            throw new InvalidSyntaxError("Expected identifier", getCurrentToken().getStart(), getCurrentToken().getEnd());
+                        }
+                        Token varName = getCurrentToken();
+                        advance();
+                        if (getCurrentToken().getType() != Token.Type.ASSIGN) {
+                            throw new InvalidSyntaxError("Expected '='", getCurrentToken().getStart(), getCurrentToken().getEnd());
+                        }
+                        advance();
+                        push(Rule.EXPR, NONE, varName);
+                        break;
+                    }
+                    if (!startsExpression(currentToken))
+                        throw new InvalidSyntaxError("Expected INT, FLOAT, IDENTIFIER, 'VAR', '+', '-', or '('", currentToken.getStart(), currentToken.getEnd());
+                    // comp-expr ((AND | OR) comp-expr)*
+                    rule = Rule.CHAIN;
+                    level = LOGICAL;
+                    break;
+                case CHAIN:
+                    push(Rule.CHAIN, level, null);
+                    rule = Rule.OPERAND;
+                    break;
+                case OPERAND:
+                    // NOT comp-expr, which may start a chain of comp-expr
+                    if (level <= COMPARISON && isKeyword(currentToken, KeywordToken.Keyword.NOT)) {
+                        advance();
+                        push(Rule.OPERAND, NONE, currentToken);
+                        rule = Rule.CHAIN;
+                        level = COMPARISON;
+                    } else {
+                        rule = Rule.FACTOR;
+                    }
+                    break;
+                case FACTOR:
+                    // (+ | -) factor
+                    if (currentToken.getType() == Token.Type.PLUS || currentToken.getType() == Token.Type.MIN) {
+                        advance();
+                        push(Rule.FACTOR, NONE, currentToken);
+                    } else {
+                        rule = Rule.POWER;
+                    }
+                    break;
+                case POWER:
+                    push(Rule.POWER, NONE, null);
+                    rule = Rule.ATOM;
+                    break;
+                case ATOM:
+                    switch (currentToken.getType()) {
+                        // INT | FLOAT
+                        case INT:
+                        case FLOAT:
+                            advance();
+                            result = new NumberNode((NumericToken) currentToken);
+                            rule = null;
+                            break;
+                        // IDENTIFIER
+                        case IDENTIFIER:
+                            advance();
+                            result = new VarAccessNode((IdentifierToken) currentToken);
+                            rule = null;
+                            break;
+                        // LPAREN expr RPAREN
+                        case LPAREN:
+                            advance();
+                            push(Rule.ATOM, NONE, null);
+                            rule = Rule.EXPR;
+                            break;
+                        default:
+                            throw new InvalidSyntaxError("Expected INT, FLOAT, IDENTIFIER, '+', '-', or ')'", currentToken.getStart(), currentToken.getEnd());
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Parse the next statement out of a sequence of statements separated by new lines.
+     * Recall the statements case is:
+     * NEWLINE* (expr (NEWLINE+ expr)*)? NEWLINE* EOF
+     * @return Node of the tree of the next statement. null if there are no more statements.
+     * @throws InvalidSyntaxError Where encounter invalid syntax.
+     */
+    public Node parseStatement() throws Error {
+        while (getCurrentToken().getType() == Token.Type.NEWLINE)
+            advance();
+        if (getCurrentToken().getType() == Token.Type.EOF)
+            return null;
+
+        Node res = expr();
+        if (getCurrentToken().getType() == Token.Type.NEWLINE) {
+            advance();
+        } else if (getCurrentToken().getType() != Token.Type.EOF) {
+            throw new InvalidSyntaxError("Expected '+', '-', '*', or '/'", getCurrentToken().getStart(), getCurrentToken().getEnd());
+        }
+        return res;
+    }
+
+    /**
+     * Parse the complete sentence into the complete tree.
+     * @return Node of the entire tree.
+     * @throws InvalidSyntaxError Where encounter invalid syntax.
+     */
+    public Node parse() throws Error {
+        Node res = expr();
+        if (getCurrentToken().getType() != Token.Type.EOF) {
+            throw new InvalidSyntaxError("Expected '+', '-', '*', or '/'", getCurrentToken().getStart(), getCurrentToken().getEnd());
+        }
+        return res;
+    }
+}
@@ -0,0 +1,32 @@
+package njie;
+
+/**
+ * Class for tracking position of everything in the program.
+ * The reason we want to track everything, is to ease finding the position where an error occured.
+ * A position is only an offset into its source. Line and column are computed when asked for (e.g. when formatting an error).
+ * @see Source
+ * @author Gil-Ad Shay.
+ */
+public class Position {
+    private final Source source;
+    private final int idx;
+
+    /**
+     * Initialize a new position.
+     * @param source Source of the position.
+     * @param idx Offset in the text of the source.
+     */
+    public Position(Source source, int idx) {
+        this.source = source;
+        this.idx = idx;
+    }
+
+    public Source getSource() { return source; }
+    public int getIdx() { return idx; }
+    public int getLN() { return source.getLine(idx); }
+    public String getFN() {return source.getName(); }
+    public String getText() {  return source.getText(); }
+    public int getCol() {
+        return source.getColumn(idx);
+    }
+}
@@ -0,0 +1,59 @@
+package njie;
+
+/**
+ * Outcome of an operation which does not throw errors: either a value, or the error which prevented it.
+ * @see Validator
+ * @author Gil-Ad Shay.
+ */
+public final class Result<T> {
+    private final T value;
+    private final Error error;
+
+    private Result(T value, Error error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Create a successful result.
+     * @param value Value of the result.
+     * @return Result with the given value.
+     */
+    public static <T> Result<T> success(T value) {
+        return new Result<>(value, null);
+    }
+
+    /**
+     * Create a failed result.
+     * @param error Error which prevented the value.
+     * @return Result with the given error.
+     */
+    public static <T> Result<T> failure(Error error) {
+        return new Result<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Get the value of a successful result.
+     * @return Value of the result. null if the result failed.
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Get the error of a failed result.
+     * @return Error of the result. null if the result succeeded.
+     */
+    public Error getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? String.valueOf(value) : error.toString();
+    }
+}
@@ -1,3 +1,5 @@
+package njie;
+
 /**
  * Class for errors occur during runtime of the program.
  * @author Gil-Ad Shay.
@@ -36,7 +38,7 @@ public class RuntimeError extends Error {
         return traceback.toString();
     }
     @Override
-    public String toString() {
+    protected String format() {
         StringBuilder sb = new StringBuilder();
         sb.append(generateTraceback());
         sb.append(String.format("%s: %s\n", getName(), getDetails()));
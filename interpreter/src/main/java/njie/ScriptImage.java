@@ -0,0 +1,576 @@
+package njie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary image of a parsed script, so a script is lexed and parsed once and its trees are loaded on later runs.
+ * The image is memory mapped and read straight into nodes. It is tied to the script by the SHA-256 hash of its content,
+ * so an image of another version of the script (or of another version of the format) is ignored. The rest of the image
+ * is checked against its checksum, and every count against the bytes left, so a corrupted image is ignored as well.
+ * All numbers are big-endian. The image is laid out as:
+ * <pre>
+ * header      int MAGIC, int VERSION, 32 bytes hash of the script, int CRC32C checksum of the rest of the image
+ * strings     int count, then for every string: int length, UTF-8 bytes
+ * constants   int count, then for every constant: byte kind (see Constant), long value (a string for BIG)
+ * sources     int count, then for every source: int name (string), int text (string), int first line
+ * nodes       int count, then for every node: byte kind (see Kind), int operand, int first child, int second child
+ * spans       for every node: int source, int start offset, int end offset
+ * statements  int count, then the node of every statement
+ * </pre>
+ * Children come before their parents, and a missing child is -1. Every source is a line of the script, as in file mode,
+ * so errors are reported exactly as if the script was parsed.
+ * @author Gil-Ad Shay.
+ */
+public class ScriptImage {
+    public static final int MAGIC = 0x4E4A4945;
+    public static final int VERSION = 2;
+
+    private static final int HASH_SIZE = 32;
+    private static final Token.Type[] TYPES = Token.Type.values();
+    private static final KeywordToken.Keyword[] KEYWORDS = KeywordToken.Keyword.values();
+
+    /**
+     * Kinds of nodes in an image.
+     */
+    enum Kind {
+        // Operand is a constant.
+        NUMBER,
+        // Operand is the name of the variable.
+        VARIABLE,
+        ASSIGNMENT,
+        // Operand is the operator: the ordinal of its type, or the number of types + the ordinal of its keyword.
+        BINARY,
+        UNARY
+    }
+
+    /**
+     * Kinds of constants in an image.
+     */
+    enum Constant {
+        INT,
+        // Value is the bits of the double.
+        FLOAT,
+        // Value is a string of the digits.
+        BIG,
+        TRUE,
+        FALSE
+    }
+
+    /**
+     * Collects the tables of an image out of the trees of a script.
+     * Each node adds itself (see Node.write) after its children.
+     */
+    public static class Writer {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+        private final List<MyNumber> constants = new ArrayList<>();
+        private final Map<MyNumber, Integer> constantIndices = new HashMap<>();
+        private final List<Source> sources = new ArrayList<>();
+        private final Map<Source, Integer> sourceIndices = new IdentityHashMap<>();
+        // Indices of the assignments, which a snapshot refers to as definitions.
+        private final Map<Node, Integer> assignmentIndices = new IdentityHashMap<>();
+        // Kind, operand, children and span of every node.
+        private int[] nodes = new int[16 * 7];
+        private int nodeCount;
+        // Indices of the nodes which were written, and are waiting for their parent.
+        private int[] pending = new int[16];
+        private int pendingCount;
+
+        Writer() {
+        }
+
+        int string(String string) {
+            return stringIndices.computeIfAbsent(string, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        /**
+         * Write a node, whose children were written just before it.
+         * @param kind Kind of the node.
+         * @param operand Operand of the node.
+         * @param node The node.
+         */
+        private void add(Kind kind, int operand, Node node) {
+            int children = node.getChildCount();
+            if (nodes.length < (nodeCount + 1) * 7)
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            Position start = node.getStart();
+            int base = nodeCount * 7;
+            nodes[base] = kind.ordinal();
+            nodes[base + 1] = operand;
+            nodes[base + 2] = children > 0 ? pending[pendingCount - children] : -1;
+            nodes[base + 3] = children > 1 ? pending[pendingCount - children + 1] : -1;
+            nodes[base + 4] = sourceIndices.computeIfAbsent(start.getSource(), source -> {
+                sources.add(source);
+                return sources.size() - 1;
+            });
+            nodes[base + 5] = start.getIdx();
+            nodes[base + 6] = node.getEnd().getIdx();
+
+            pendingCount -= children;
+            if (pendingCount == pending.length)
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            pending[pendingCount++] = nodeCount++;
+        }
+
+        int constant(MyNumber value) {
+            return constantIndices.computeIfAbsent(value, v -> {
+                constants.add(v);
+                return constants.size() - 1;
+            });
+        }
+
+        /**
+         * Get the index of the given assignment, which was written as a part of a tree.
+         * @param node Given assignment.
+         * @return Index of the assignment. -1 if it was not written.
+         */
+        int indexOf(VarAssignNode node) {
+            return assignmentIndices.getOrDefault(node, -1);
+        }
+
+        public void writeNumber(MyNumber value, Node node) {
+            add(Kind.NUMBER, constant(value), node);
+        }
+
+        public void writeVariable(String name, Node node) {
+            add(Kind.VARIABLE, string(name), node);
+        }
+
+        public void writeAssignment(String name, Node node) {
+            assignmentIndices.put(node, nodeCount);
+            add(Kind.ASSIGNMENT, string(name), node);
+        }
+
+        /**
+         * Write a binary or unary operation.
+         * @param operator Operator of the operation.
+         * @param node The node of the operation.
+         */
+        public void writeOperation(Token operator, Node node) {
+            int operand = operator instanceof KeywordToken
+                ? TYPES.length + ((KeywordToken) operator).getKeyword().ordinal()
+                : operator.getType().ordinal();
+            add(node.getChildCount() == 2 ? Kind.BINARY : Kind.UNARY, operand, node);
+        }
+
+        /**
+         * Write the given tree, walking it with an explicit stack as the compiler does.
+         * @param root Root of the tree.
+         * @return Index of the root.
+         */
+        int writeTree(Node root) {
+            Node[] stack = new Node[16];
+            int[] steps = new int[16];
+            int size = 0;
+            stack[size] = root;
+            steps[size++] = 0;
+            while (size > 0) {
+                Node top = stack[size - 1];
+                int step = steps[size - 1]++;
+                if (step == top.getChildCount()) {
+                    top.write(this);
+                    stack[--size] = null;
+                    continue;
+                }
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                    steps = Arrays.copyOf(steps, size * 2);
+                }
+                stack[size] = top.getChild(step);
+                steps[size++] = 0;
+            }
+            return pending[--pendingCount];
+        }
+
+        /**
+         * Write the tables, which follow the header, into the given output.
+         * @param out Given output.
+         * @param statements Indices of the statements.
+         * @throws IOException If the output fails.
+         */
+        void writeTo(DataOutputStream out, int[] statements) throws IOException {
+            // Sources add their strings, so the string table is written after they are known
+            int[] sourceStrings = new int[sources.size() * 2];
+            for (int i = 0; i < sources.size(); i++) {
+                sourceStrings[i * 2] = string(sources.get(i).getName());
+                sourceStrings[i * 2 + 1] = string(sources.get(i).getText());
+            }
+            for (MyNumber constant : constants)
+                if (constant.isBig())
+                    string(constant.toString());
+
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(constants.size());
+            for (MyNumber constant : constants) {
+                if (constant instanceof MyBoolean) {
+                    out.writeByte((((MyBoolean) constant).getBooleanValue() ? Constant.TRUE : Constant.FALSE).ordinal());
+                    out.writeLong(0);
+                } else if (!constant.isInteger()) {
+                    out.writeByte(Constant.FLOAT.ordinal());
+                    out.writeLong(Double.doubleToRawLongBits(constant.getValue()));
+                } else if (constant.isBig()) {
+                    out.writeByte(Constant.BIG.ordinal());
+                    out.writeLong(string(constant.toString()));
+                } else {
+                    out.writeByte(Constant.INT.ordinal());
+                    out.writeLong(constant.getLongValue());
+                }
+            }
+
+            out.writeInt(sources.size());
+            for (int i = 0; i < sources.size(); i++) {
+                out.writeInt(sourceStrings[i * 2]);
+                out.writeInt(sourceStrings[i * 2 + 1]);
+                out.writeInt(sources.get(i).getFirstLine());
+            }
+
+            out.writeInt(nodeCount);
+            for (int i = 0; i < nodeCount; i++) {
+                out.writeByte(nodes[i * 7]);
+                out.writeInt(nodes[i * 7 + 1]);
+                out.writeInt(nodes[i * 7 + 2]);
+                out.writeInt(nodes[i * 7 + 3]);
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                out.writeInt(nodes[i * 7 + 4]);
+                out.writeInt(nodes[i * 7 + 5]);
+                out.writeInt(nodes[i * 7 + 6]);
+            }
+
+            out.writeInt(statements.length);
+            for (int statement : statements)
+                out.writeInt(statement);
+        }
+    }
+
+    /**
+     * Lex and parse every statement of the given script, as the file mode does.
+     * @param fn File name.
+     * @param text Text of the script.
+     * @return Trees of the statements.
+     * @throws Error In case of an illegal character or invalid syntax.
+     */
+    public static List<Node> parse(String fn, String text) throws Error {
+        Parser parser = new Parser(new Lexer(fn, new StringReader(text)));
+        List<Node> statements = new ArrayList<>();
+        Node statement;
+        while ((statement = parser.parseStatement()) != null)
+            statements.add(statement);
+        return statements;
+    }
+
+    /**
+     * Get the statements of the given script out of its image, or parse the script and write its image if the image is
+     * missing or does not match the script.
+     * @param script Path of the script.
+     * @param image Path of the image.
+     * @return Trees of the statements.
+     * @throws Error In case of an illegal character or invalid syntax, in which case no image is written.
+     * @throws IOException If the script can not be read, or the image can not be written.
+     */
+    public static List<Node> loadOrCompile(Path script, Path image) throws Error, IOException {
+        byte[] content = Files.readAllBytes(script);
+        byte[] hash = hash(ByteBuffer.wrap(content));
+        List<Node> statements = load(image, hash);
+        if (statements != null)
+            return statements;
+
+        statements = parse(script.toString(), new String(content, StandardCharsets.UTF_8));
+        write(statements, hash, image);
+        return statements;
+    }
+
+    /**
+     * Get the statements of the given script out of its image.
+     * @param script Path of the script.
+     * @param image Path of the image.
+     * @return Trees of the statements. null if the image is missing, or does not match the script.
+     * @throws IOException If the script can not be read.
+     */
+    public static List<Node> load(Path script, Path image) throws IOException {
+        try (FileChannel channel = FileChannel.open(script, StandardOpenOption.READ)) {
+            return load(image, hash(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+        }
+    }
+
+    /**
+     * Write the image of the given statements.
+     * The image is written aside and moved into place, so a reader never sees a partial image.
+     * @param statements Trees of the statements, as parsed.
+     * @param hash Hash of the script.
+     * @param image Path of the image.
+     * @throws IOException If the image can not be written.
+     * @throws IllegalArgumentException If a tree was optimized, as only parsed trees can be written.
+     */
+    public static void write(List<Node> statements, byte[] hash, Path image) throws IOException {
+        Writer writer = new Writer();
+        int[] roots = new int[statements.size()];
+        for (int i = 0; i < roots.length; i++)
+            roots[i] = writer.writeTree(statements.get(i));
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            writer.writeTo(out, roots);
+        }
+        writeFile(image, header.toByteArray(), body.toByteArray());
+    }
+
+    /**
+     * Write the given header, the checksum of the given body (see checksum) and the body into the given file.
+     * The file is written aside and moved into place, so a reader never sees a partial file.
+     * @param file Path of the file.
+     * @param header Header of the file.
+     * @param body Rest of the file.
+     * @throws IOException If the file can not be written.
+     */
+    static void writeFile(Path file, byte[] header, byte[] body) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.write(header);
+                out.writeInt(checksum(ByteBuffer.wrap(body)));
+                out.write(body);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Compute the checksum of the body of an image or a snapshot, which follows their header.
+     * @param body Buffer whose remaining bytes are the body. Its position is left as it is.
+     * @return CRC32C of the body.
+     */
+    static int checksum(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Compute the hash which ties an image to the content of its script.
+     * @param content Content of the script.
+     * @return SHA-256 hash of the content.
+     */
+    public static byte[] hash(ByteBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Load the statements out of the given image, through a memory mapping.
+     * @param image Path of the image.
+     * @param hash Hash of the script.
+     * @return Trees of the statements. null if the image is missing, is not an image of this version, was written for
+     *         another content, or is truncated or corrupted.
+     * @throws IOException If the image exists but can not be read.
+     */
+    private static List<Node> load(Path image, byte[] hash) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return null;
+            byte[] imageHash = new byte[HASH_SIZE];
+            buffer.get(imageHash);
+            if (!Arrays.equals(imageHash, hash) || buffer.getInt() != checksum(buffer))
+                return null;
+            return read(buffer, true).statements;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            // A truncated or corrupted image is ignored, as a stale one is
+            return null;
+        }
+    }
+
+    /**
+     * Tables of an image, as read.
+     */
+    static class Tables {
+        final String[] strings;
+        final MyNumber[] constants;
+        final Node[] nodes;
+        final List<Node> statements;
+
+        private Tables(String[] strings, MyNumber[] constants, Node[] nodes, List<Node> statements) {
+            this.strings = strings;
+            this.constants = constants;
+            this.nodes = nodes;
+            this.statements = statements;
+        }
+    }
+
+    /**
+     * Read a count of entries, each taking at least the given number of bytes.
+     * Counts are checked before anything is allocated for the entries, so a corrupted count fails fast.
+     * @param buffer Buffer positioned at the count.
+     * @param size Least number of bytes of an entry.
+     * @return The count.
+     * @throws IllegalArgumentException If the count is negative, or there are not enough bytes left for the entries.
+     */
+    static int readCount(ByteBuffer buffer, int size) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / size)
+            throw new IllegalArgumentException(String.format("Count %d does not fit %d bytes", count, buffer.remaining()));
+        return count;
+    }
+
+    /**
+     * Read the tables of an image, which follow its header.
+     * @param buffer Mapped image, positioned after the header.
+     * @param withNodes Whether to create the nodes, or only the strings and constants and skip the rest.
+     * @return Tables of the image. Without nodes, the nodes are null and there are no statements.
+     * @throws BufferUnderflowException If the image is truncated.
+     * @throws IndexOutOfBoundsException If the image is corrupted.
+     * @throws IllegalArgumentException If a count of the image is corrupted.
+     */
+    static Tables read(ByteBuffer buffer, boolean withNodes) {
+        // Every string has its length, and every constant a kind and a value
+        String[] strings = new String[readCount(buffer, 4)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readCount(buffer, 1)];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        MyNumber[] constants = new MyNumber[readCount(buffer, 9)];
+        for (int i = 0; i < constants.length; i++) {
+            Constant kind = Constant.values()[buffer.get()];
+            long value = buffer.getLong();
+            switch (kind) {
+                case INT: constants[i] = MyNumber.of(value); break;
+                case FLOAT: constants[i] = MyNumber.of(Double.longBitsToDouble(value)); break;
+                case BIG: constants[i] = MyNumber.of(new BigInteger(strings[(int) value])); break;
+                default: constants[i] = MyBoolean.valueOf(kind == Constant.TRUE);
+            }
+        }
+
+        if (!withNodes) {
+            // Sources, nodes with their spans, and statements
+            for (int size : new int[] { 12, 25, 4 }) {
+                int count = readCount(buffer, size);
+                buffer.position(buffer.position() + count * size);
+            }
+            return new Tables(strings, constants, null, List.of());
+        }
+
+        Source[] sources = new Source[readCount(buffer, 12)];
+        for (int i = 0; i < sources.length; i++)
+            sources[i] = new Source(strings[buffer.getInt()], strings[buffer.getInt()], buffer.getInt());
+
+        // Every node has its span
+        int count = readCount(buffer, 25);
+        ByteBuffer spans = buffer.duplicate();
+        spans.position(buffer.position() + count * 13);
+        Node[] nodes = new Node[count];
+        for (int i = 0; i < count; i++) {
+            Kind kind = Kind.values()[buffer.get()];
+            int operand = buffer.getInt();
+            int first = buffer.getInt();
+            int second = buffer.getInt();
+            Source source = sources[spans.getInt()];
+            int start = spans.getInt();
+            int end = spans.getInt();
+            switch (kind) {
+                case NUMBER: {
+                    MyNumber value = constants[operand];
+                    Token.Type type = value.isInteger() ? Token.Type.INT : Token.Type.FLOAT;
+                    nodes[i] = new NumberNode(new NumericToken(type, value, source, start, end));
+                    break;
+                }
+                case VARIABLE:
+                    nodes[i] = new VarAccessNode(new IdentifierToken(strings[operand], source, start, end));
+                    break;
+                case ASSIGNMENT:
+                    nodes[i] = new VarAssignNode(new IdentifierToken(strings[operand], source, start, end), child(nodes, first, i));
+                    break;
+                case BINARY:
+                    nodes[i] = new BinOpNode(child(nodes, first, i), operator(operand, source, start), child(nodes, second, i));
+                    break;
+                default:
+                    nodes[i] = new UnOpNode(operator(operand, source, start), child(nodes, first, i));
+            }
+        }
+        buffer.position(spans.position());
+
+        List<Node> statements = new ArrayList<>();
+        for (int i = readCount(buffer, 4); i > 0; i--)
+            statements.add(nodes[buffer.getInt()]);
+        return new Tables(strings, constants, nodes, statements);
+    }
+
+    /**
+     * Get the child of a node being read.
+     * @param nodes Nodes read so far.
+     * @param index Index of the child.
+     * @param parent Index of the node.
+     * @return The child.
+     * @throws IndexOutOfBoundsException If the child does not come before the node.
+     */
+    private static Node child(Node[] nodes, int index, int parent) {
+        return nodes[Objects.checkIndex(index, parent)];
+    }
+
+    /**
+     * Create the operator of the given operand.
+     * @param operand Operand of an operation.
+     * @param source Source of the operator.
+     * @param start Starting offset of the operator.
+     * @return Operator token.
+     */
+    private static Token operator(int operand, Source source, int start) {
+        if (operand < TYPES.length)
+            return new Token(TYPES[operand], source, start);
+        return new KeywordToken(KEYWORDS[operand - TYPES.length], source, start);
+    }
+}
@@ -0,0 +1,98 @@
+package njie;
+
+/**
+ * Occurrence of a subtree which appears several times in a tree, and is evaluated once per evaluation of the tree.
+ * All occurrences of the subtree share the same node and index (see Optimizer.share), and the first occurrence which
+ * is evaluated keeps the value in the context (see DagNode), for the other occurrences to reuse.
+ * Each occurrence keeps its own span, so errors are reported where they were before sharing.
+ * @author Gil-Ad Shay.
+ */
+public class SharedNode extends Node {
+    private final Node node;
+    private final int index;
+
+    /**
+     * Initialize a new occurrence of a shared node.
+     * @param node Shared node.
+     * @param index Index of the value of the shared node in the context.
+     * @param span Node of the occurrence, whose span is given to it.
+     */
+    public SharedNode(Node node, int index, Node span) {
+        super(span.getStart(), span.getEnd(), node.getDepth() + 1);
+        this.node = node;
+        this.index = index;
+    }
+
+    @Override
+    public String toString() {
+        return node.toString();
+    }
+
+    @Override
+    public MyNumber visit(Context context) throws RuntimeError {
+        MyNumber[] values = context.getSharedValues();
+        if (values == null)
+            return node.visit(context);
+        if (values[index] == null)
+            values[index] = node.visit(context);
+        return values[index];
+    }
+
+    @Override
+    public void evaluate(Frame frame) throws RuntimeError {
+        MyNumber[] values = frame.getContext().getSharedValues();
+        if (values == null) {
+            node.evaluate(frame);
+        } else if (values[index] != null) {
+            frame.push(values[index]);
+        } else {
+            node.evaluate(frame);
+            values[index] = frame.peekNumber();
+        }
+    }
+
+    @Override
+    public Column visit(Batch batch) throws RuntimeError {
+        // Operations may write their result over a temporary column, so a column is not shared
+        return node.visit(batch);
+    }
+
+    @Override
+    public int getChildCount() {
+        return 1;
+    }
+
+    @Override
+    public Node getChild(int idx) {
+        if (idx != 0)
+            throw new IndexOutOfBoundsException(idx);
+        return node;
+    }
+
+    @Override
+    public void compile(Compiler compiler, int step) {
+        // The shared node is compiled for every occurrence, and ID gives its value the span of the occurrence
+        if (step == 1)
+            compiler.emit(OpCode.ID, this);
+    }
+
+    @Override
+    public Object getOperation() {
+        return null;
+    }
+
+    @Override
+    public Node withChildren(Node[] children) {
+        return new SharedNode(children[0], index, this);
+    }
+
+    @Override
+    public void write(ScriptImage.Writer writer) {
+        throw new IllegalArgumentException("Shared nodes are not written, as optimized trees are not");
+    }
+
+    @Override
+    public Node fold(Optimizer optimizer) {
+        return this;
+    }
+}
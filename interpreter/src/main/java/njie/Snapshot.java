@@ -0,0 +1,164 @@
+package njie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot of the global symbol table after running a prelude, so later processes restore it instead of running the
+ * prelude again. A snapshot holds the parsed prelude (in the tables of a script image, see ScriptImage) and every
+ * variable of the symbol table. In reactive mode, it also holds the definition of every variable, referring to the
+ * assignment in the prelude, so restoring leaves the same dependencies as running the prelude. As with an image, the rest
+ * of the snapshot is checked against its checksum, and every count against the bytes left.
+ * All numbers are big-endian. A snapshot is laid out as:
+ * <pre>
+ * header      int MAGIC, int VERSION, 32 bytes hash of the prelude, byte reactive (1) or not (0),
+ *             int CRC32C checksum of the rest of the snapshot
+ * prelude     tables of a script image
+ * variables   int count, then for every variable: int name (string), byte flags (see below),
+ *             int value (constant, -1 if undefined), int definition (node, -1 if none)
+ * </pre>
+ * @author Gil-Ad Shay.
+ */
+public class Snapshot {
+    public static final int MAGIC = 0x4E4A5353;
+    public static final int VERSION = 2;
+
+    private static final int HASH_SIZE = 32;
+    // Flags of a variable.
+    private static final int CONSTANT = 1;
+    // Evaluating the definition of the variable again failed, and left it undefined.
+    private static final int FAILED = 2;
+
+    /**
+     * Write a snapshot of the given symbol table, after the given prelude ran in it.
+     * The snapshot is written aside and moved into place, so a reader never sees a partial snapshot.
+     * @param snapshot Path of the snapshot.
+     * @param hash Hash of the prelude (see ScriptImage.hash).
+     * @param prelude Trees of the statements of the prelude, as parsed and run.
+     * @param symbolTable Symbol table the prelude ran in.
+     * @throws IOException If the snapshot can not be written.
+     */
+    public static void write(Path snapshot, byte[] hash, List<Node> prelude, SymbolTable symbolTable) throws IOException {
+        ScriptImage.Writer writer = new ScriptImage.Writer();
+        int[] roots = new int[prelude.size()];
+        for (int i = 0; i < roots.length; i++)
+            roots[i] = writer.writeTree(prelude.get(i));
+
+        // Name, flags, value and definition of every variable, which add to the tables before they are written
+        DependencyGraph dependencies = symbolTable.getDependencies();
+        int count = 0;
+        int[] variables = new int[symbolTable.getSlotCount() * 4];
+        for (int slot = 0; slot < symbolTable.getSlotCount(); slot++) {
+            MyNumber value = symbolTable.get(slot);
+            VarAssignNode definition = dependencies != null ? dependencies.getDefinition(slot) : null;
+            if (value == null && definition == null)
+                continue;
+            int flags = (symbolTable.isConstant(slot) ? CONSTANT : 0) | (symbolTable.getError(slot) != null ? FAILED : 0);
+            variables[count * 4] = writer.string(SymbolTable.nameOf(slot));
+            variables[count * 4 + 1] = flags;
+            variables[count * 4 + 2] = value != null ? writer.constant(value) : -1;
+            variables[count * 4 + 3] = definition != null ? writer.indexOf(definition) : -1;
+            count++;
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash);
+            out.writeByte(dependencies != null ? 1 : 0);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            writer.writeTo(out, roots);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(variables[i * 4]);
+                out.writeByte(variables[i * 4 + 1]);
+                out.writeInt(variables[i * 4 + 2]);
+                out.writeInt(variables[i * 4 + 3]);
+            }
+        }
+        ScriptImage.writeFile(snapshot, header.toByteArray(), body.toByteArray());
+    }
+
+    /**
+     * Restore the given snapshot into the given symbol table, through a memory mapping.
+     * Nothing is restored unless the whole snapshot is valid.
+     * @param snapshot Path of the snapshot.
+     * @param hash Hash of the prelude the snapshot must be of. null for any prelude.
+     * @param symbolTable Symbol table to restore into, whose reactive mode must match the snapshot.
+     * @param context Context which the restored definitions are evaluated in again.
+     * @return true if the snapshot was restored. false if it is missing, is not a snapshot of this version, is of
+     *         another prelude or reactive mode, or is truncated or corrupted.
+     * @throws IOException If the snapshot exists but can not be read.
+     */
+    public static boolean restore(Path snapshot, byte[] hash, SymbolTable symbolTable, Context context) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        Symbol[] symbols;
+        int[] flags;
+        MyNumber[] values;
+        VarAssignNode[] definitions;
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return false;
+            byte[] preludeHash = new byte[HASH_SIZE];
+            buffer.get(preludeHash);
+            if (hash != null && !Arrays.equals(preludeHash, hash))
+                return false;
+            if ((buffer.get() != 0) != symbolTable.isReactive())
+                return false;
+            if (buffer.getInt() != ScriptImage.checksum(buffer))
+                return false;
+
+            // The prelude is only needed for the definitions of a reactive symbol table
+            ScriptImage.Tables tables = ScriptImage.read(buffer, symbolTable.isReactive());
+            int count = ScriptImage.readCount(buffer, 13);
+            symbols = new Symbol[count];
+            flags = new int[count];
+            values = new MyNumber[count];
+            definitions = new VarAssignNode[count];
+            for (int i = 0; i < count; i++) {
+                symbols[i] = SymbolTable.symbolOf(tables.strings[buffer.getInt()]);
+                flags[i] = buffer.get();
+                int value = buffer.getInt();
+                int definition = buffer.getInt();
+                values[i] = value >= 0 ? tables.constants[value] : null;
+                if (definition >= 0 && (tables.nodes == null || !(tables.nodes[definition] instanceof VarAssignNode)))
+                    return false;
+                definitions[i] = definition >= 0 ? (VarAssignNode) tables.nodes[definition] : null;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            // A truncated or corrupted snapshot is ignored, as a stale one is
+            return false;
+        }
+
+        // Values are stored before any definition, as a failed definition is evaluated again over them
+        for (int i = 0; i < symbols.length; i++) {
+            if ((flags[i] & CONSTANT) != 0)
+                symbolTable.setConstant(symbols[i].getName(), values[i]);
+            else
+                symbolTable.store(symbols[i], values[i]);
+        }
+        DependencyGraph dependencies = symbolTable.getDependencies();
+        for (int i = 0; i < symbols.length; i++)
+            if (definitions[i] != null)
+                dependencies.restore(symbols[i].getSlot(), definitions[i], context, (flags[i] & FAILED) != 0);
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package njie;
+
+/**
+ * Class for the text of a file (or of a part of it), shared by all positions in it.
+ * Positions only keep an offset into the text. Their line and column are computed from an index of the line starts,
+ * which is built the first time it is needed, usually only when an error is formatted.
+ * @see Position
+ * @author Gil-Ad Shay.
+ */
+public class Source {
+    private final String name;
+    private final String text;
+    private final int firstLine;
+    private volatile int[] lineStarts;
+
+    /**
+     * Initialize a new source of a whole file.
+     * @param name File name.
+     * @param text Text of the file.
+     */
+    public Source(String name, String text) {
+        this(name, text, 0);
+    }
+
+    /**
+     * Initialize a new source of a part of a file, which starts at the given line of the file.
+     * Used when the file is read line by line, so positions only keep the text of their own line.
+     * @param name File name.
+     * @param text Text starting at the given line.
+     * @param firstLine Line of the file where the text starts.
+     */
+    public Source(String name, String text, int firstLine) {
+        this.name = name;
+        this.text = text;
+        this.firstLine = firstLine;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the line of the file where the text starts.
+     * Overridden by sources whose text moves within the file as it is edited (see IncrementalParser).
+     * @return Line of the file where the text starts.
+     */
+    public int getFirstLine() {
+        return firstLine;
+    }
+
+    /**
+     * Get the offsets of the starts of the lines, building them if needed.
+     * A '\n' belongs to the line it ends.
+     * @return Offset of the start of every line of the text.
+     */
+    private int[] getLineStarts() {
+        int[] starts = lineStarts;
+        if (starts != null)
+            return starts;
+
+        int count = 1;
+        for (int i = 0; i < text.length(); i++)
+            if (text.charAt(i) == '\n')
+                count++;
+        starts = new int[count];
+        for (int i = 0, line = 1; i < text.length(); i++)
+            if (text.charAt(i) == '\n')
+                starts[line++] = i + 1;
+        lineStarts = starts;
+        return starts;
+    }
+
+    /**
+     * Get the index of the line (within the text) of the given offset.
+     * @param idx Offset in the text.
+     * @return Index of the line containing the offset.
+     */
+    private int lineIndex(int idx) {
+        int[] starts = getLineStarts();
+        int low = 0, high = starts.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= idx)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Get the line (within the file) of the given offset.
+     * @param idx Offset in the text.
+     * @return Line of the offset, starting at 0.
+     */
+    public int getLine(int idx) {
+        return getFirstLine() + lineIndex(idx);
+    }
+
+    /**
+     * Get the column of the given offset.
+     * @param idx Offset in the text.
+     * @return Column of the offset, starting at 0.
+     */
+    public int getColumn(int idx) {
+        return idx - getLineStarts()[lineIndex(idx)];
+    }
+}
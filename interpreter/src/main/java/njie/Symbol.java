@@ -0,0 +1,30 @@
+package njie;
+
+/**
+ * Class for a name resolved to a slot of the symbol tables (see SymbolTable.symbolOf).
+ * The slot belongs to the name as long as the symbol is used, by a node or by a symbol table holding a value of it.
+ * Once no one uses the symbol, its slot is reused for another name.
+ * @author Gil-Ad Shay.
+ */
+public final class Symbol {
+    private final String name;
+    private final int slot;
+
+    Symbol(String name, int slot) {
+        this.name = name;
+        this.slot = slot;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,302 @@
+package njie;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class for tracking symbols (i.e., variables) in the program.
+ * Every name is resolved once into a symbol, whose slot is shared by all symbol tables, and values are stored in an
+ * array indexed by slot. Nodes resolve their symbol while parsing, so accessing a variable is an indexed load rather
+ * than a hash lookup.
+ * Resolving a name which has a symbol takes no lock. Symbols are held weakly, and the slot of a symbol no node and no
+ * symbol table uses any longer is reused, so the slots (and the arrays of the symbol tables) grow with the names in use
+ * rather than with every name ever parsed.
+ * In reactive mode (see setReactive), assigning a variable evaluates again the assignments which read it.
+ * @author Gil-Ad Shay.
+ */
+public class SymbolTable {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Map<String, SymbolReference> SYMBOLS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Symbol> UNUSED = new ReferenceQueue<>();
+    // Name of every slot. Written only while holding the lock of the class, and copied when it grows.
+    private static volatile String[] names = new String[INITIAL_CAPACITY];
+    // Slots of symbols which are no longer used. Guarded by the lock of the class.
+    private static final BitSet freeSlots = new BitSet();
+    private static int slotCount;
+
+    private MyNumber[] values;
+    private boolean[] constants;
+    // Symbol of every slot this symbol table stored a value in, so its slot is not reused while the value is kept.
+    private Symbol[] symbols;
+    private final SymbolTable parent;
+    // Definitions of the variables in reactive mode. null otherwise.
+    private DependencyGraph dependencies;
+
+    /**
+     * Weak reference to a symbol, which frees the slot of the symbol once it is collected.
+     */
+    private static final class SymbolReference extends WeakReference<Symbol> {
+        private final String name;
+        private final int slot;
+
+        SymbolReference(Symbol symbol) {
+            super(symbol, UNUSED);
+            this.name = symbol.getName();
+            this.slot = symbol.getSlot();
+        }
+    }
+
+    /**
+     * Initialize an empty symbol table.
+     */
+    public SymbolTable() {
+        this(null);
+    }
+
+    /**
+     * Initialize an empty symbol table, falling back to the given parent for variables not found in it.
+     * @param parent Parent symbol table.
+     */
+    public SymbolTable(SymbolTable parent) {
+        this.values = new MyNumber[INITIAL_CAPACITY];
+        this.constants = new boolean[INITIAL_CAPACITY];
+        this.symbols = new Symbol[INITIAL_CAPACITY];
+        this.parent = parent;
+    }
+
+    /**
+     * Get the symbol of the given name, assigning a slot to names which have no symbol in use.
+     * @param name Given name.
+     * @return Symbol of the name.
+     */
+    public static Symbol symbolOf(String name) {
+        Symbol symbol = findSymbol(name);
+        return symbol != null ? symbol : assignSlot(name);
+    }
+
+    /**
+     * Create a symbol for the given name, in the lowest free slot.
+     * @param name Given name.
+     * @return Symbol of the name (which may have been created by another thread).
+     */
+    private static synchronized Symbol assignSlot(String name) {
+        Symbol symbol = findSymbol(name);
+        if (symbol != null)
+            return symbol;
+        for (Reference<? extends Symbol> unused = UNUSED.poll(); unused != null; unused = UNUSED.poll()) {
+            SymbolReference reference = (SymbolReference) unused;
+            SYMBOLS.remove(reference.name, reference);
+            names[reference.slot] = null;
+            freeSlots.set(reference.slot);
+        }
+
+        int slot = freeSlots.nextSetBit(0);
+        if (slot >= 0) {
+            freeSlots.clear(slot);
+        } else {
+            slot = slotCount++;
+            if (slot == names.length)
+                names = Arrays.copyOf(names, slot * 2);
+        }
+        names[slot] = name;
+        symbol = new Symbol(name, slot);
+        // The name is written before the symbol is published, so nameOf sees it.
+        SYMBOLS.put(name, new SymbolReference(symbol));
+        return symbol;
+    }
+
+    /**
+     * Get the symbol of the given name, without creating one.
+     * @param name Given name.
+     * @return Symbol of the name. null if the name has no symbol in use.
+     */
+    private static Symbol findSymbol(String name) {
+        SymbolReference reference = SYMBOLS.get(name);
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * Get the number of slots in use or free to reuse, which bounds the slots of the symbols.
+     * @return Number of slots.
+     */
+    static synchronized int getSlotLimit() {
+        return slotCount;
+    }
+
+    /**
+     * Get the name of the given slot.
+     * @param slot Given slot.
+     * @return Name whose slot is the given slot.
+     */
+    public static String nameOf(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Get the value of the variable in the given slot.
+     * @param slot Slot of the variable.
+     * @return The value of the variable in the symbol table. null if not found.
+     */
+    public MyNumber get(int slot) {
+        MyNumber value = slot < values.length ? values[slot] : null;
+        if (value == null && parent != null)
+            return parent.get(slot);
+        return value;
+    }
+
+    /**
+     * Get the value of the variable named name.
+     * @param name Given name.
+     * @return The value of the variable in the symbol table. null if not found.
+     */
+    public MyNumber get(String name) {
+        Symbol symbol = findSymbol(name);
+        return symbol != null ? get(symbol.getSlot()) : null;
+    }
+
+    /**
+     * Set the value of the given variable to the given value.
+     * In reactive mode, the variable is no longer defined by an assignment, and its dependents are evaluated again.
+     * @param symbol Symbol of variable.
+     * @param value New value to assign.
+     */
+    public void set(Symbol symbol, MyNumber value) {
+        if (dependencies != null)
+            dependencies.set(symbol, value, null, null);
+        else
+            store(symbol, value);
+    }
+
+    /**
+     * Set the value of the given variable to the result of the given assignment.
+     * In reactive mode, the assignment becomes the definition of the variable, and its dependents are evaluated again.
+     * @param symbol Symbol of variable.
+     * @param value New value to assign.
+     * @param node Assignment which computed the value.
+     * @param context Context of the assignment.
+     */
+    public void assign(Symbol symbol, MyNumber value, VarAssignNode node, Context context) {
+        if (dependencies != null)
+            dependencies.set(symbol, value, node, context);
+        else
+            store(symbol, value);
+    }
+
+    /**
+     * Store the value of the given variable, without tracking its dependents.
+     * @param symbol Symbol of variable.
+     * @param value New value to store (null for undefined).
+     */
+    void store(Symbol symbol, MyNumber value) {
+        int slot = symbol.getSlot();
+        if (slot >= values.length) {
+            int capacity = Math.max(values.length * 2, slot + 1);
+            values = Arrays.copyOf(values, capacity);
+            constants = Arrays.copyOf(constants, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+        }
+        values[slot] = value;
+        symbols[slot] = symbol;
+    }
+
+    /**
+     * Get the number of slots this symbol table has room for, which bounds the slots of its variables.
+     * @return Number of slots.
+     */
+    int getSlotCount() {
+        return values.length;
+    }
+
+    /**
+     * Set the value of the variale named name to the given value.
+     * @param name Name of variable.
+     * @param value New value to assign.
+     */
+    public void set(String name, MyNumber value) {
+        set(symbolOf(name), value);
+    }
+
+    /**
+     * Set the value of the constant named name to the given value.
+     * Constants can not be assigned by the program, so their value can be inlined by the optimizer.
+     * @param name Name of constant.
+     * @param value Value of the constant.
+     */
+    public void setConstant(String name, MyNumber value) {
+        Symbol symbol = symbolOf(name);
+        set(symbol, value);
+        constants[symbol.getSlot()] = true;
+    }
+
+    /**
+     * Check whether the variable in the given slot is a constant.
+     * @param slot Slot of variable.
+     * @return true if the variable is a constant in this symbol table or in one of its parents.
+     */
+    public boolean isConstant(int slot) {
+        return (slot < constants.length && constants[slot]) || (parent != null && parent.isConstant(slot));
+    }
+
+    /**
+     * Check whether the variable named name is a constant.
+     * @param name Name of variable.
+     * @return true if the variable is a constant in this symbol table or in one of its parents.
+     */
+    public boolean isConstant(String name) {
+        Symbol symbol = findSymbol(name);
+        return symbol != null && isConstant(symbol.getSlot());
+    }
+
+    /**
+     * Remove the variable named name from this symbol table.
+     * @param name Name of variable.
+     */
+    public void remove(String name) {
+        Symbol symbol = findSymbol(name);
+        if (symbol != null && symbol.getSlot() < values.length) {
+            set(symbol, null);
+            constants[symbol.getSlot()] = false;
+            symbols[symbol.getSlot()] = null;
+        }
+    }
+
+    /**
+     * Turn the reactive mode of this symbol table on or off.
+     * In reactive mode, a variable assigned by an expression of other variables is kept up to date: whenever a variable
+     * it reads changes, the expression is evaluated again (see DependencyGraph). Assignments made before turning the
+     * mode on are not tracked.
+     * @param reactive Whether to turn the mode on.
+     */
+    public void setReactive(boolean reactive) {
+        dependencies = reactive ? new DependencyGraph(this) : null;
+    }
+
+    public boolean isReactive() {
+        return dependencies != null;
+    }
+
+    /**
+     * Get the error which left the variable in the given slot undefined, when its definition was evaluated again.
+     * @param slot Slot of variable.
+     * @return Error of evaluating the definition again. null if there is none.
+     */
+    public RuntimeError getError(int slot) {
+        RuntimeError error = dependencies != null ? dependencies.getError(slot) : null;
+        if (error == null && parent != null)
+            return parent.getError(slot);
+        return error;
+    }
+
+    /**
+     * Get the graph of the definitions of the variables.
+     * @return Graph of the definitions. null if this symbol table is not reactive.
+     */
+    public DependencyGraph getDependencies() {
+        return dependencies;
+    }
+}
@@ -1,3 +1,5 @@
+package njie;
+
 /**
  * Interface for overriding BinaryOperator and allowing it to throw errors.
  * @author Gil-Ad Shay.
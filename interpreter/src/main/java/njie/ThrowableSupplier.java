@@ -1,3 +1,5 @@
+package njie;
+
 /**
  * Interface for overriding Supplier and allowing it to throw errors.
  */
@@ -0,0 +1,123 @@
+package njie;
+
+/**
+ * The basic unit of our language.
+ * @author Gil-Ad Shay.
+ */
+public class Token {
+    public enum Type {
+        INT, 
+        FLOAT,
+
+        PLUS, 
+        MIN, 
+        MUL, 
+        DIV, 
+        POW, 
+        LPAREN, 
+        RPAREN, 
+
+        IDENTIFIER, 
+        KEYWORD,
+
+        ASSIGN,
+
+        EQUALS,
+        NOT_EQUALS,
+        LESS_THAN,
+        GREATER_THAN,
+        LESS_THAN_OR_EQUALS,
+        GREATER_THAN_OR_EQUALS,
+
+        NEWLINE,
+        EOF;
+    }
+
+    // Tokens of every type without a position. There are few of them, so they are not kept by the Interner.
+    private static final Token[] SHARED = new Token[Type.values().length];
+
+    static {
+        for (Type type : Type.values())
+            SHARED[type.ordinal()] = new Token(type);
+    }
+
+    private final Type type;
+    // Positions are kept as offsets, and only created when asked for.
+    private final Source source;
+    private final int start;
+    private final int end;
+
+    /**
+     * Initialize a new constant token.
+     * @param type Type of constant.
+     */
+    public Token(Token.Type type) {
+        this(type, null, -1, -1);
+    }
+
+    /**
+     * Initialize new Token with given type.
+     * @param type Given type.
+     * @param source Source of the token.
+     * @param start Starting offset.
+     * @param end Ending offset.
+     */
+    public Token(Token.Type type, Source source, int start, int end) {
+        this.type = type;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Initialize a new Token with given type.
+     * Ending offset is starting offset + 1.
+     * @param type Given type.
+     * @param source Source of the token.
+     * @param start Starting offset.
+     */
+    public Token(Token.Type type, Source source, int start) {
+        this(type, source, start, start + 1);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the shared token equal to this token (see Interner), which has no position.
+     * Nodes keep their spans themselves, so they keep shared tokens.
+     * @return Shared token.
+     */
+    public Token intern() {
+        return SHARED[type.ordinal()];
+    }
+    public Position getStart() {
+        return source == null ? null : new Position(source, start);
+    }
+    public Position getEnd() {
+        return source == null ? null : new Position(source, end);
+    }
+
+    @Override
+    public String toString() {
+        return type.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        Token other = (Token) obj;
+        return type == other.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return type.hashCode();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package njie;
+
+/**
+ * Interface for handing tokens to the parser one at a time.
+ * @see Lexer
+ * @author Gil-Ad Shay.
+ */
+@FunctionalInterface
+public interface TokenStream {
+    /**
+     * Get the next token.
+     * Once the tokens are over, keep returning the EOF token.
+     * @return Next token.
+     * @throws IllegalCharError when encountering an undefined character.
+     * @throws ExpectedCharError when encountering '!' not followed by '='.
+     */
+    public Token next() throws IllegalCharError, ExpectedCharError;
+}
@@ -0,0 +1,114 @@
+package njie;
+
+/**
+ * Enables unary operation as -5.
+ * @author Gil-Ad Shay.
+ */
+public class UnOpNode extends Node {
+    private final Token operator;
+    private final Node operand;
+    private final OpCode opCode;
+
+    /**
+     * Initialize new unary operation node with the given operator (- or +) and operand.
+     * @param operator Unary operator (- or +).
+     * @param operand Node that comes after the operator.
+     */
+    public UnOpNode(Token operator, Node operand) {
+        this(operator, operand, operator.getStart());
+    }
+
+    /**
+     * Initialize new unary operation node starting at the given position.
+     * @param operator Unary operator (- or +).
+     * @param operand Node that comes after the operator.
+     * @param start Starting position, as the kept operator is shared and has no position.
+     */
+    private UnOpNode(Token operator, Node operand, Position start) {
+        super(start, operand.getEnd(), operand.getDepth() + 1);
+        this.operator = operator.intern();
+        this.operand = operand;
+        if (operator.getType() == Token.Type.MIN)
+            this.opCode = OpCode.NEG;
+        else if (operator.getType() == Token.Type.KEYWORD && ((KeywordToken) operator).getKeyword() == KeywordToken.Keyword.NOT)
+            this.opCode = OpCode.NOT;
+        else
+            this.opCode = OpCode.ID;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%s, %s)", operator, operand);
+    }
+
+    @Override
+    public MyNumber visit(Context context) throws RuntimeError {
+        MyNumber result = operand.visit(context);
+        if (opCode == OpCode.NEG)
+            return result.neg();
+        if (opCode == OpCode.NOT) {
+            try {
+                return result.toBoolean().not();
+            } catch (ArithmeticException e) {
+                throw new RuntimeError(e.getMessage(), operand.getStart(), operand.getEnd(), context);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void evaluate(Frame frame) throws RuntimeError {
+        operand.evaluate(frame);
+        frame.unaryOperation(opCode, operand);
+    }
+
+    @Override
+    public Column visit(Batch batch) throws RuntimeError {
+        return Column.unaryOperation(opCode, operand.visit(batch), operand, batch);
+    }
+
+    @Override
+    public int getChildCount() {
+        return 1;
+    }
+
+    @Override
+    public Node getChild(int idx) {
+        if (idx != 0)
+            throw new IndexOutOfBoundsException(idx);
+        return operand;
+    }
+
+    @Override
+    public void compile(Compiler compiler, int step) {
+        if (step == 1)
+            compiler.emit(opCode, this);
+    }
+
+    @Override
+    public Object getOperation() {
+        return opCode;
+    }
+
+    @Override
+    public Node withChildren(Node[] children) {
+        return new UnOpNode(operator, children[0], getStart());
+    }
+
+    @Override
+    public void write(ScriptImage.Writer writer) {
+        writer.writeOperation(operator, this);
+    }
+
+    @Override
+    public Node fold(Optimizer optimizer) {
+        Node folded = operand.fold(optimizer);
+        Node node = folded == operand ? this : new UnOpNode(operator, folded, getStart());
+        if (!Optimizer.isLiteral(folded))
+            return node;
+        // NOT of a value which is not a boolean is left, so the error is raised when the program runs
+        if (opCode == OpCode.NOT && !(((NumberNode) folded).getValue() instanceof MyBoolean))
+            return node;
+        return optimizer.tryFold(node);
+    }
+}
@@ -0,0 +1,51 @@
+package njie;
+
+/**
+ * Checks and runs expressions without throwing, for callers which expect many of them to be invalid.
+ * Errors are stackless and are only formatted when printed, so an invalid expression costs about as much as a valid one.
+ * @author Gil-Ad Shay.
+ */
+public class Validator {
+
+    /**
+     * Lex and parse the given expression.
+     * @param fileName Name of the file of the expression, for tracking errors.
+     * @param text Source text of the expression.
+     * @return Result with the root of the tree, or with the illegal character or invalid syntax error.
+     */
+    public static Result<Node> validate(String fileName, String text) {
+        try {
+            return Result.success(new Parser(new Lexer(fileName, text).makeTokens()).parse());
+        } catch (Error e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Lex, parse and run the given expression.
+     * @param fileName Name of the file of the expression, for tracking errors.
+     * @param text Source text of the expression.
+     * @param context Context of the program.
+     * @return Result with the value of the expression, or with the error which stopped it.
+     */
+    public static Result<MyNumber> evaluate(String fileName, String text, Context context) {
+        Result<Node> node = validate(fileName, text);
+        if (!node.isSuccess())
+            return Result.failure(node.getError());
+        return evaluate(node.getValue(), context);
+    }
+
+    /**
+     * Run the given tree.
+     * @param node Root of the tree.
+     * @param context Context of the program.
+     * @return Result with the value of the tree, or with the runtime error which stopped it.
+     */
+    public static Result<MyNumber> evaluate(Node node, Context context) {
+        try {
+            return Result.success(Interpreter.visit(node, context));
+        } catch (RuntimeError e) {
+            return Result.failure(e);
+        }
+    }
+}
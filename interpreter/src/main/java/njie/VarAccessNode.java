@@ -0,0 +1,113 @@
+package njie;
+
+/**
+ * Class for node of accessing variables and using their values.
+ * @author Gil-Ad Shay.
+ */
+public class VarAccessNode extends Node {
+
+    private final IdentifierToken varName;
+    private final Symbol symbol;
+    private final int slot;
+
+    /**
+     * Initialize new var access node.
+     * @param varName name of the accessed variable.
+     */
+    public VarAccessNode(IdentifierToken varName) {
+        super(varName.getStart(), varName.getEnd(), 1);
+        this.varName = varName.intern();
+        this.symbol = SymbolTable.symbolOf(varName.getName());
+        this.slot = symbol.getSlot();
+    }
+
+    @Override
+    public String toString() {
+        return varName.toString();
+    }
+
+    @Override
+    public MyNumber visit(Context context) throws RuntimeError {
+        MyNumber value = context.getSymbolTable().get(slot);
+
+        if (value == null)
+            throw notDefined(context);
+        return value;
+    }
+
+    @Override
+    public void evaluate(Frame frame) throws RuntimeError {
+        MyNumber value = frame.getContext().getSymbolTable().get(slot);
+
+        if (value == null)
+            throw notDefined(frame.getContext());
+        frame.push(value);
+    }
+
+    @Override
+    public Column visit(Batch batch) throws RuntimeError {
+        Column column = batch.getColumn(slot);
+        if (column != null)
+            return column;
+
+        MyNumber value = batch.getContext().getSymbolTable().get(slot);
+        if (value == null) {
+            RuntimeError error = notDefined(batch.getContext());
+            throw batch.error(error.getDetails(), error.getStart(), error.getEnd(), batch.firstActiveRow());
+        }
+        return Column.scalar(value);
+    }
+
+    @Override
+    public int getChildCount() {
+        return 0;
+    }
+
+    @Override
+    public Node getChild(int idx) {
+        throw new IndexOutOfBoundsException(idx);
+    }
+
+    @Override
+    public void compile(Compiler compiler, int step) {
+        compiler.emit(OpCode.LOAD, slot, this);
+    }
+
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Get the error of reading this variable while it is not defined.
+     * @param context Context of the access.
+     * @return The error which left the variable undefined in reactive mode (see SymbolTable.getError), or an error
+     *         telling the variable is not defined.
+     */
+    private RuntimeError notDefined(Context context) {
+        RuntimeError error = context.getSymbolTable().getError(slot);
+        if (error != null)
+            return error;
+        return new RuntimeError(String.format("%s is not defined", varName.getName()), getStart(), getEnd(), context);
+    }
+
+    @Override
+    public Object getOperation() {
+        return varName.getName();
+    }
+
+    @Override
+    public Node withChildren(Node[] children) {
+        return this;
+    }
+
+    @Override
+    public void write(ScriptImage.Writer writer) {
+        writer.writeVariable(varName.getName(), this);
+    }
+
+    @Override
+    public Node fold(Optimizer optimizer) {
+        MyNumber constant = optimizer.getConstant(varName.getName());
+        return constant == null ? this : optimizer.literal(constant, this);
+    }
+}
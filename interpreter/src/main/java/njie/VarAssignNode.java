@@ -0,0 +1,152 @@
+package njie;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class for assigning variables.
+ * @author Gil-Ad Shay.
+ */
+public class VarAssignNode extends Node {
+
+    private final IdentifierToken varName;
+    private final Node value;
+    private final Symbol symbol;
+    // Variables read by the value, found on first use (see getReads).
+    private volatile boolean isScanned;
+    private int[] reads;
+
+    /**
+     * Initialize a new var assigning node assigning given value to given variable.
+     * @param varName Name of the variable we are assigning.
+     * @param value The value of the assigned variable.
+     */
+    public VarAssignNode(IdentifierToken varName, Node value) {
+        this(varName, value, varName.getStart());
+    }
+
+    /**
+     * Initialize a new var assigning node starting at the given position.
+     * @param varName Name of the variable we are assigning.
+     * @param value The value of the assigned variable.
+     * @param start Starting position, as the kept name is shared and has no position.
+     */
+    private VarAssignNode(IdentifierToken varName, Node value, Position start) {
+        super(start, value.getEnd(), value.getDepth() + 1);
+        this.varName = varName.intern();
+        this.value = value;
+        this.symbol = SymbolTable.symbolOf(varName.getName());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%s: %s)", varName.getName(), value.toString());
+    }
+
+    @Override
+    public MyNumber visit(Context context) throws RuntimeError {
+        MyNumber numberValue = value.visit(context);
+        checkNotConstant(context);
+        context.getSymbolTable().assign(symbol, numberValue, this, context);
+        return numberValue;
+    }
+
+    @Override
+    public void evaluate(Frame frame) throws RuntimeError {
+        value.evaluate(frame);
+        checkNotConstant(frame.getContext());
+        frame.getContext().getSymbolTable().assign(symbol, frame.peekNumber(), this, frame.getContext());
+    }
+
+    @Override
+    public Column visit(Batch batch) throws RuntimeError {
+        throw new RuntimeError("Can not assign variables in a batch", getStart(), getEnd(), batch.getContext());
+    }
+
+    @Override
+    public int getChildCount() {
+        return 1;
+    }
+
+    @Override
+    public Node getChild(int idx) {
+        if (idx != 0)
+            throw new IndexOutOfBoundsException(idx);
+        return value;
+    }
+
+    @Override
+    public void compile(Compiler compiler, int step) {
+        if (step == 1)
+            compiler.emit(OpCode.STORE, symbol.getSlot(), this);
+    }
+
+    @Override
+    public Object getOperation() {
+        return null;
+    }
+
+    @Override
+    public Node withChildren(Node[] children) {
+        return new VarAssignNode(varName, children[0], getStart());
+    }
+
+    @Override
+    public void write(ScriptImage.Writer writer) {
+        writer.writeAssignment(varName.getName(), this);
+    }
+
+    @Override
+    public Node fold(Optimizer optimizer) {
+        Node folded = value.fold(optimizer);
+        return folded == value ? this : new VarAssignNode(varName, folded, getStart());
+    }
+
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Get the variables read by the assigned value, which the assigned variable depends on in reactive mode.
+     * @return Slots of the variables, each once. null if the value assigns variables itself.
+     */
+    public int[] getReads() {
+        if (!isScanned) {
+            reads = scan();
+            isScanned = true;
+        }
+        return reads;
+    }
+
+    /**
+     * Walk the tree of the value for the variables it reads, with an explicit stack as trees may be deep.
+     * @return Slots of the variables read. null if the value assigns variables.
+     */
+    private int[] scan() {
+        Set<Integer> slots = new LinkedHashSet<>();
+        List<Node> stack = new ArrayList<>();
+        stack.add(value);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            if (node instanceof VarAssignNode)
+                return null;
+            if (node instanceof VarAccessNode)
+                slots.add(((VarAccessNode) node).getSymbol().getSlot());
+            for (int i = node.getChildCount() - 1; i >= 0; i--)
+                stack.add(node.getChild(i));
+        }
+        return slots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Make sure the assigned variable is not a constant.
+     * @param context Context of the assignment.
+     * @throws RuntimeError If the assigned variable is a constant.
+     */
+    private void checkNotConstant(Context context) throws RuntimeError {
+        if (context.getSymbolTable().isConstant(symbol.getSlot()))
+            throw new RuntimeError(String.format("%s is a constant", varName.getName()), getStart(), getEnd(), context);
+    }
+}
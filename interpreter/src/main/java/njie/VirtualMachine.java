@@ -0,0 +1,131 @@
+package njie;
+
+import java.util.Arrays;
+
+/**
+ * Stack based virtual machine for running compiled chunks.
+ * Produces the same results and errors as visiting the tree the chunk was compiled from.
+ * @see Chunk
+ * @author Gil-Ad Shay.
+ */
+public class VirtualMachine {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final ThreadLocal<Stack> STACKS = ThreadLocal.withInitial(Stack::new);
+
+    /**
+     * Operand stack of a thread, reused by all of its runs.
+     * A run nested in another (e.g. a definition evaluated again by an assignment) uses the part above the outer run.
+     */
+    private static class Stack {
+        private MyNumber[] values = new MyNumber[INITIAL_CAPACITY];
+        private int top;
+    }
+
+    /**
+     * Run the given chunk.
+     * @param chunk Compiled chunk.
+     * @param context Context of the program for tracking errors.
+     * @return Number with the result of the chunk.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    public static MyNumber run(Chunk chunk, Context context) throws RuntimeError {
+        Stack threadStack = STACKS.get();
+        int base = threadStack.top;
+        int limit = base + chunk.getMaxStack();
+        // A nested run which grows the stack leaves the outer run on the old array, which it keeps using
+        if (limit > threadStack.values.length)
+            threadStack.values = Arrays.copyOf(threadStack.values, Math.max(limit, threadStack.values.length * 2));
+        threadStack.top = limit;
+        try {
+            return run(chunk, context, threadStack.values, base);
+        } finally {
+            threadStack.top = base;
+        }
+    }
+
+    /**
+     * Run the given chunk on the given part of a stack.
+     * Errors get the span of the operand which caused them, which is a child of the node of the failing instruction, as
+     * in the tree walker.
+     * @param chunk Compiled chunk.
+     * @param context Context of the program for tracking errors.
+     * @param stack Values of the stack.
+     * @param sp Bottom of the part of the stack the chunk runs on.
+     * @return Number with the result of the chunk.
+     * @throws RuntimeError In case of a runtime error.
+     */
+    private static MyNumber run(Chunk chunk, Context context, MyNumber[] stack, int sp) throws RuntimeError {
+        OpCode[] opCodes = chunk.getOpCodes();
+        int[] operands = chunk.getOperands();
+        SymbolTable symbolTable = context.getSymbolTable();
+        for (int ip = 0; ip < opCodes.length; ip++) {
+            OpCode opCode = opCodes[ip];
+            MyNumber result;
+            switch (opCode) {
+                case CONST:
+                    result = chunk.getConstant(operands[ip]);
+                    break;
+                case LOAD: {
+                    int slot = operands[ip];
+                    result = symbolTable.get(slot);
+                    if (result == null) {
+                        RuntimeError error = symbolTable.getError(slot);
+                        throw error != null ? error : new RuntimeError(String.format("%s is not defined", SymbolTable.nameOf(slot)), chunk.getStart(ip), chunk.getEnd(ip), context);
+                    }
+                    break;
+                }
+                case STORE: {
+                    int slot = operands[ip];
+                    if (symbolTable.isConstant(slot))
+                        throw new RuntimeError(String.format("%s is a constant", SymbolTable.nameOf(slot)), chunk.getStart(ip), chunk.getEnd(ip), context);
+                    VarAssignNode node = (VarAssignNode) chunk.getNode(ip);
+                    symbolTable.assign(node.getSymbol(), stack[sp - 1], node, context);
+                    continue;
+                }
+                case JUMP_IF_FALSE:
+                case JUMP_IF_TRUE: {
+                    boolean value = toBoolean(stack[sp - 1], chunk.getNode(ip).getChild(0), context).getBooleanValue();
+                    if (value == (opCode == OpCode.JUMP_IF_TRUE))
+                        ip = operands[ip] - 1;
+                    continue;
+                }
+                case NEG:
+                    result = stack[--sp].neg();
+                    break;
+                case NOT:
+                    result = toBoolean(stack[--sp], chunk.getNode(ip).getChild(0), context).not();
+                    break;
+                case ID:
+                    continue;
+                default: {
+                    MyNumber right = stack[--sp];
+                    MyNumber left = stack[--sp];
+                    try {
+                        result = left.apply(opCode, right);
+                    } catch (ArithmeticException e) {
+                        Node operand = chunk.getNode(ip).getChild(1);
+                        throw new RuntimeError(e.getMessage(), operand.getStart(), operand.getEnd(), context);
+                    }
+                }
+            }
+            stack[sp++] = result;
+        }
+        return stack[sp - 1];
+    }
+
+    /**
+     * Get the given value as the operand of a logical instruction.
+     * @param value Given value.
+     * @param operand Node of the operand, whose span is used in errors.
+     * @param context Context of the program for tracking errors.
+     * @return The value as a boolean.
+     * @throws RuntimeError If the value is not a boolean.
+     */
+    private static MyBoolean toBoolean(MyNumber value, Node operand, Context context) throws RuntimeError {
+        try {
+            return value.toBoolean();
+        } catch (ArithmeticException e) {
+            throw new RuntimeError(e.getMessage(), operand.getStart(), operand.getEnd(), context);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that reactive symbol tables reject definitions which make a variable depend on itself, keep every variable up
+ * to date, and evaluate again only the definitions which read a variable whose value changed.
+ * @author Gil-Ad Shay.
+ */
+class DependencyGraphTest {
+    private static final int VARIABLES = 12;
+
+    private static Node parse(String text) throws Error {
+        return new Parser(new Lexer("<program>", text).makeTokens()).parse();
+    }
+
+    private static SymbolTable reactive() {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setReactive(true);
+        return symbolTable;
+    }
+
+    /**
+     * Check whether the given variable is reached from the given reads through the given definitions.
+     * @param variable Given variable.
+     * @param reads Variables the search starts from.
+     * @param definitions Variables read by every defined variable.
+     * @return true if the variable is reached.
+     */
+    private static boolean reaches(int variable, List<Integer> reads, Map<Integer, List<Integer>> definitions) {
+        Deque<Integer> queue = new ArrayDeque<>(reads);
+        Set<Integer> visited = new HashSet<>();
+        while (!queue.isEmpty()) {
+            int read = queue.pop();
+            if (read == variable)
+                return true;
+            if (visited.add(read) && definitions.containsKey(read))
+                queue.addAll(definitions.get(read));
+        }
+        return false;
+    }
+
+    /**
+     * Evaluate the given variable from scratch, where a defined variable is 1 plus the sum of its reads.
+     * @param variable Given variable.
+     * @param inputs Value of every variable which is not defined.
+     * @param definitions Variables read by every defined variable.
+     * @return Value of the variable.
+     */
+    private static long value(int variable, long[] inputs, Map<Integer, List<Integer>> definitions) {
+        List<Integer> reads = definitions.get(variable);
+        if (reads == null)
+            return inputs[variable];
+        long value = 1;
+        for (int read : reads)
+            value += value(read, inputs, definitions);
+        return value;
+    }
+
+    @Test
+    void matchesBruteForce() throws Error {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 50; trial++) {
+            SymbolTable symbolTable = reactive();
+            Context context = new Context("<program>", symbolTable);
+            long[] inputs = new long[VARIABLES];
+            Map<Integer, List<Integer>> definitions = new HashMap<>();
+            for (int i = 0; i < VARIABLES; i++) {
+                inputs[i] = i;
+                symbolTable.set("v" + i, MyNumber.of(i));
+            }
+
+            for (int step = 0; step < 150; step++) {
+                int variable = random.nextInt(VARIABLES);
+                String name = "v" + variable;
+                if (random.nextInt(4) == 0) {
+                    inputs[variable] = random.nextInt(100);
+                    definitions.remove(variable);
+                    symbolTable.set(name, MyNumber.of(inputs[variable]));
+                } else {
+                    List<Integer> reads = new ArrayList<>();
+                    StringBuilder text = new StringBuilder("VAR " + name + " = 1");
+                    for (int i = 1 + random.nextInt(3); i > 0; i--) {
+                        int read = random.nextInt(VARIABLES);
+                        reads.add(read);
+                        text.append(" + v").append(read);
+                    }
+                    boolean cycle = reaches(variable, reads, definitions);
+                    if (cycle) {
+                        // Evaluated once, but the variable is then set to the value rather than defined.
+                        long value = 1;
+                        for (int read : reads)
+                            value += value(read, inputs, definitions);
+                        inputs[variable] = value;
+                        definitions.remove(variable);
+                    } else {
+                        definitions.put(variable, reads);
+                    }
+                    Interpreter.visit(parse(text.toString()), context);
+                    VarAssignNode definition = symbolTable.getDependencies().getDefinition(SymbolTable.symbolOf(name).getSlot());
+                    assertEquals(!cycle, definition != null, trial + ": " + text);
+                }
+
+                for (int i = 0; i < VARIABLES; i++)
+                    assertEquals(MyNumber.of(value(i, inputs, definitions)), symbolTable.get("v" + i), trial + ": v" + i);
+            }
+        }
+    }
+
+    @Test
+    void skipsDependentsOfUnchangedValues() throws Error {
+        SymbolTable symbolTable = reactive();
+        Context context = new Context("<program>", symbolTable);
+        symbolTable.set("x", MyNumber.of(1));
+        Interpreter.visit(parse("VAR a = x * 0"), context);
+        for (int i = 0; i < 1000; i++)
+            Interpreter.visit(parse("VAR d" + i + " = a + " + i), context);
+        Interpreter.visit(parse("VAR b = x + 1"), context);
+        Interpreter.visit(parse("VAR c = b + d999"), context);
+
+        DependencyGraph dependencies = symbolTable.getDependencies();
+        long recomputed = dependencies.getRecomputed();
+        symbolTable.set("x", MyNumber.of(2));
+        // a keeps its value, so only a, b and c are evaluated again.
+        assertEquals(3, dependencies.getRecomputed() - recomputed);
+        assertEquals(MyNumber.of(3), symbolTable.get("b"));
+        assertEquals(MyNumber.of(1002), symbolTable.get("c"));
+    }
+}
@@ -0,0 +1,106 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests that every engine reports runtime errors with the same message and span as the tree walker, and that syntax
+ * errors are shown with the same arrows by every parser. Batches report the same errors, naming the same row, whether
+ * they evaluate column by column or fall back to row by row.
+ * @author Gil-Ad Shay.
+ */
+class ErrorSpanTest {
+    private static final String[] FAILING = {
+        "1 / 0",
+        "x / y",
+        "1 / (VAR a = 0)",
+        "(VAR b = 1) / (VAR c = 0)",
+        "-(1 / (VAR d = 0)) + 1",
+        "x + (1 / (VAR e = y))",
+        "NOT 1",
+        "NOT (VAR f = 1)",
+        "(VAR g = 1) AND TRUE",
+        "TRUE AND (VAR h = 1)",
+        "undefined + 1",
+        "2 ^ 99999999",
+        "VAR TRUE = 1",
+    };
+
+    private final int threshold = JitCompiler.getThreshold();
+
+    @AfterEach
+    void restore() {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        JitCompiler.setThreshold(threshold);
+    }
+
+    private static Context context() {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        symbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        symbolTable.set("x", MyNumber.of(3));
+        symbolTable.set("y", MyNumber.of(0));
+        return new Context("<stdin>", symbolTable);
+    }
+
+    private static String error(Interpreter.Engine engine, String text) throws Error {
+        Interpreter.setEngine(engine);
+        // Visit the tree a few times, so the JIT runs its compiled code.
+        JitCompiler.setThreshold(1);
+        Node node = new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+        String error = null;
+        for (int i = 0; i < 3; i++) {
+            Context context = context();
+            error = assertThrows(RuntimeError.class, () -> Interpreter.visit(node, context), text).toString();
+        }
+        return error;
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void reportsSameSpanAsTreeWalker(Interpreter.Engine engine) throws Error {
+        for (String text : FAILING)
+            assertEquals(error(Interpreter.Engine.TREE_WALKER, text), error(engine, text), text);
+    }
+
+    @Test
+    void showsCaretAtEndOfLine() throws Error {
+        String text = "1+1\n2+\n3\n";
+        String[] errors = {
+            assertThrows(Error.class, () -> {
+                Parser parser = new Parser(new Lexer("<stdin>", text));
+                while (parser.parseStatement() != null)
+                    continue;
+            }).toString(),
+            new IncrementalParser("<stdin>", text).getResult().getError().toString(),
+            assertThrows(Error.class, () -> ScriptImage.parse("<stdin>", text)).toString(),
+        };
+        for (String error : errors)
+            assertTrue(error.endsWith("\n2+\n  ^"), error);
+    }
+
+    private static String batchError(long first, String text) throws Error {
+        Batch batch = new Batch(3, context());
+        batch.put("p", new long[] {first, 2, 3});
+        batch.put("q", new long[] {1, 0, 3});
+        Node node = new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+        return assertThrows(RuntimeError.class, () -> batch.evaluate(node, new double[3]), text).toString();
+    }
+
+    @Test
+    void batchReportsSameRowByRows() throws Error {
+        // p + 1 overflows a long in row 0, so the batch is evaluated row by row.
+        for (String text : new String[] {"p + 1 + 1 / q", "NOT (p + 1 + q)", "p + 1 + undefined"}) {
+            String error = batchError(Long.MAX_VALUE, text);
+            assertEquals(batchError(1, text), error);
+            assertTrue(error.contains(" in row "), error);
+        }
+        assertTrue(batchError(Long.MAX_VALUE, "p + 1 + 1 / q").contains("Division by zero in row 1"));
+    }
+}
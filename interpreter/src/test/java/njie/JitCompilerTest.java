@@ -0,0 +1,85 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that trees which could not be compiled are compiled again only once the kinds of their variables change.
+ * @author Gil-Ad Shay.
+ */
+class JitCompilerTest {
+    private final int threshold = JitCompiler.getThreshold();
+
+    @BeforeEach
+    void setUp() {
+        Interpreter.setEngine(Interpreter.Engine.JIT);
+        JitCompiler.setThreshold(1);
+    }
+
+    @AfterEach
+    void restore() {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        JitCompiler.setThreshold(threshold);
+    }
+
+    private static Node parse(String text) throws Error {
+        return new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+    }
+
+    @Test
+    void compilesOnceVariableIsDefined() throws Error {
+        Context context = new Context("<stdin>", new SymbolTable());
+        Node node = parse("x + 1");
+        for (int i = 0; i < 3; i++)
+            assertThrows(RuntimeError.class, () -> Interpreter.visit(node, context));
+        assertFalse(node.getProfile().isCompiled());
+
+        context.getSymbolTable().set("x", MyNumber.of(1));
+        for (int i = 0; i < 3; i++)
+            assertEquals(MyNumber.of(2), Interpreter.visit(node, context));
+        assertTrue(node.getProfile().isCompiled());
+    }
+
+    @Test
+    void compilesOnceKindChanges() throws Error {
+        SymbolTable symbolTable = new SymbolTable();
+        Context context = new Context("<stdin>", symbolTable);
+        symbolTable.set("x", MyNumber.of(1));
+        symbolTable.set("y", MyNumber.of(2));
+        Node node = parse("x AND y");
+        for (int i = 0; i < 3; i++)
+            assertThrows(RuntimeError.class, () -> Interpreter.visit(node, context));
+        assertFalse(node.getProfile().isCompiled());
+
+        // Only one of the kinds changes, which is still not compiled.
+        symbolTable.set("x", MyBoolean.TRUE);
+        for (int i = 0; i < 3; i++)
+            assertThrows(RuntimeError.class, () -> Interpreter.visit(node, context));
+        assertFalse(node.getProfile().isCompiled());
+
+        symbolTable.set("y", MyBoolean.FALSE);
+        for (int i = 0; i < 3; i++)
+            assertEquals(MyBoolean.FALSE, Interpreter.visit(node, context));
+        assertTrue(node.getProfile().isCompiled());
+    }
+
+    @Test
+    void runsAssignmentWhichIsNotCompiled() throws Error {
+        SymbolTable symbolTable = new SymbolTable();
+        Context context = new Context("<stdin>", symbolTable);
+        symbolTable.set("x", MyNumber.of(1));
+        Node node = parse("VAR y = x + 1");
+        for (int i = 0; i < 3; i++) {
+            symbolTable.set("x", MyNumber.of(i));
+            assertEquals(MyNumber.of(i + 1), Interpreter.visit(node, context));
+            assertEquals(MyNumber.of(i + 1), symbolTable.get("y"));
+        }
+        assertFalse(node.getProfile().isCompiled());
+    }
+}
@@ -0,0 +1,146 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests that every engine follows the numeric tower: integers are longs promoted to BigIntegers when they overflow,
+ * integer powers are exact, and mixing kinds gives the same kind of result everywhere.
+ * @author Gil-Ad Shay.
+ */
+class NumericTowerTest {
+    private static final BigInteger TWO_TO_63 = BigInteger.ONE.shiftLeft(63);
+
+    private final int threshold = JitCompiler.getThreshold();
+
+    @AfterEach
+    void restore() {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        JitCompiler.setThreshold(threshold);
+    }
+
+    private static Context context() {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        symbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        symbolTable.set("max", MyNumber.of(Long.MAX_VALUE));
+        symbolTable.set("min", MyNumber.of(Long.MIN_VALUE));
+        symbolTable.set("two", MyNumber.of(2));
+        symbolTable.set("half", MyNumber.of(0.5));
+        return new Context("<stdin>", symbolTable);
+    }
+
+    private static Node parse(String text) throws Error {
+        return new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+    }
+
+    private static MyNumber run(Interpreter.Engine engine, String text) throws Error {
+        Interpreter.setEngine(engine);
+        // Visit the tree a few times, so the JIT runs its compiled code.
+        JitCompiler.setThreshold(1);
+        Node node = parse(text);
+        Context context = context();
+        MyNumber result = null;
+        for (int i = 0; i < 3; i++)
+            result = Interpreter.visit(node, context);
+        return result;
+    }
+
+    private static void assertRuns(Interpreter.Engine engine, MyNumber expected, String text) throws Error {
+        assertEquals(expected, run(engine, text), text);
+    }
+
+    private static void assertFails(Interpreter.Engine engine, String details, String text) throws Error {
+        Node node = parse(text);
+        Interpreter.setEngine(engine);
+        JitCompiler.setThreshold(1);
+        Context context = context();
+        for (int i = 0; i < 3; i++)
+            assertEquals(details, assertThrows(RuntimeError.class, () -> Interpreter.visit(node, context), text).getDetails(), text);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void overflowPromotesToBigInteger(Interpreter.Engine engine) throws Error {
+        assertRuns(engine, MyNumber.of(TWO_TO_63), "max + 1");
+        assertRuns(engine, MyNumber.of(TWO_TO_63), "9223372036854775807 + 1");
+        assertRuns(engine, MyNumber.of(TWO_TO_63.negate().subtract(BigInteger.ONE)), "min - 1");
+        assertRuns(engine, MyNumber.of(TWO_TO_63), "-min");
+        assertRuns(engine, MyNumber.of(TWO_TO_63), "min / -1");
+        assertRuns(engine, MyNumber.of(BigInteger.valueOf(Long.MAX_VALUE).pow(2)), "max * max");
+        // Results which fit a long again are longs.
+        assertRuns(engine, MyNumber.of(Long.MAX_VALUE), "max + 1 - 1");
+        assertRuns(engine, MyNumber.of(0), "(max + 1) - (max + 1)");
+        assertRuns(engine, MyBoolean.TRUE, "max + 1 > max");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void powersAreExact(Interpreter.Engine engine) throws Error {
+        // 3 ^ 39 is not exact as a double.
+        assertRuns(engine, MyNumber.of(4052555153018976267L), "3 ^ 39");
+        assertRuns(engine, MyNumber.of(BigInteger.valueOf(3).pow(40)), "3 ^ 40");
+        assertRuns(engine, MyNumber.of(Long.MIN_VALUE), "(-2) ^ 63");
+        assertRuns(engine, MyNumber.of(TWO_TO_63), "two ^ 63");
+        assertRuns(engine, MyNumber.of(BigInteger.TWO.pow(128)), "(two ^ 64) ^ 2");
+        assertRuns(engine, MyNumber.of(1), "two ^ 0");
+        assertRuns(engine, MyNumber.of(-1), "(-1) ^ 99999999999");
+        assertRuns(engine, MyNumber.of(0), "0 ^ 99999999999");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void negativeExponentsTruncate(Interpreter.Engine engine) throws Error {
+        assertRuns(engine, MyNumber.of(0), "two ^ -1");
+        assertRuns(engine, MyNumber.of(1), "1 ^ -5");
+        assertRuns(engine, MyNumber.of(-1), "(-1) ^ -3");
+        assertRuns(engine, MyNumber.of(0), "(two ^ 64) ^ -1");
+        assertRuns(engine, MyNumber.of(0.5), "2.0 ^ -1");
+        assertRuns(engine, MyNumber.of(4.0), "half ^ -2");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void limitsIntegerPowers(Interpreter.Engine engine) throws Error {
+        // 2 has 2 bits, so the largest power of 2 allowed is 2 ^ (MAX_POWER_BITS / 2).
+        assertRuns(engine, MyBoolean.TRUE, "two ^ " + MyNumber.MAX_POWER_BITS / 2 + " > max");
+        assertFails(engine, "Integer too large", "two ^ " + (MyNumber.MAX_POWER_BITS / 2 + 1));
+        assertFails(engine, "Integer too large", "2 ^ 99999999999");
+        assertFails(engine, "Integer too large", "(max + 1) ^ max");
+        // Floats have no such limit.
+        assertRuns(engine, MyNumber.of(Double.POSITIVE_INFINITY), "2.0 ^ 99999999999");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void followsKindRules(Interpreter.Engine engine) throws Error {
+        // Integers stay integers, and division truncates.
+        assertRuns(engine, MyNumber.of(3), "7 / two");
+        assertRuns(engine, MyNumber.of(-3), "-7 / two");
+        // A float operand makes a float.
+        assertRuns(engine, MyNumber.of(3.5), "7 / 2.0");
+        assertRuns(engine, MyNumber.of(2.0), "1 + 1.0");
+        assertRuns(engine, MyNumber.of(1.0), "two * half");
+        assertRuns(engine, MyNumber.of(Math.pow(2, 64)), "(two ^ 64) * 1.0");
+        // Booleans are the integers 1 and 0 in arithmetic.
+        assertRuns(engine, MyNumber.of(2), "TRUE + 1");
+        assertRuns(engine, MyNumber.of(-1), "-TRUE");
+        assertRuns(engine, MyNumber.of(0.5), "FALSE + half");
+        // Comparisons make booleans, comparing integers exactly and with floats as doubles.
+        assertRuns(engine, MyBoolean.TRUE, "1 == 1.0");
+        assertRuns(engine, MyBoolean.FALSE, "max == max + 1");
+        assertRuns(engine, MyBoolean.TRUE, "TRUE == 1");
+        assertRuns(engine, MyBoolean.FALSE, "NOT (1 < two)");
+        assertRuns(engine, MyBoolean.TRUE, "(1 < two) AND (half < 1)");
+        // Logical operations only take booleans.
+        assertFails(engine, "Expected a boolean value", "NOT two");
+        assertFails(engine, "Expected a boolean value", "1 AND TRUE");
+        assertFails(engine, "Expected a boolean value", "FALSE OR half");
+    }
+}
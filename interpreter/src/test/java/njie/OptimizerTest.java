@@ -0,0 +1,93 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests that optimized trees evaluate, and fail, as the trees they were made of.
+ * @author Gil-Ad Shay.
+ */
+class OptimizerTest {
+    @AfterEach
+    void restore() {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+    }
+
+    private static Context context() {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        symbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        symbolTable.set("x", MyNumber.of(-1));
+        symbolTable.set("y", MyNumber.of(0));
+        symbolTable.set("z", MyNumber.of(3));
+        return new Context("<stdin>", symbolTable);
+    }
+
+    private static Node parse(String text) throws Error {
+        return new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void errorOfSkippedOccurrenceIsNotShared(Interpreter.Engine engine) throws Error {
+        Interpreter.setEngine(engine);
+        String text = "(x > 0 AND (10/y) > 1) OR (10/y) > 1";
+        Context context = context();
+        Node node = new Optimizer(context.getSymbolTable()).optimize(parse(text));
+        RuntimeError error = assertThrows(RuntimeError.class, () -> Interpreter.visit(node, context));
+        assertEquals(text.lastIndexOf('y'), error.getStart().getIdx());
+    }
+
+    @Test
+    void sharesOccurrenceEvaluatedFirst() throws Error {
+        Optimizer optimizer = new Optimizer(context().getSymbolTable());
+        Node node = optimizer.optimize(parse("(z + 1 > 0 AND (z + 1) > 1) OR (z + 1) > 1"));
+        assertInstanceOf(DagNode.class, node);
+        assertEquals(6, optimizer.getRemovedCount());
+        assertEquals(MyBoolean.TRUE, Interpreter.visit(node, context()));
+    }
+
+    @Test
+    void sharesInsideAssignment() throws Error {
+        Context context = context();
+        Optimizer optimizer = new Optimizer(context.getSymbolTable());
+        Node node = optimizer.optimize(parse("VAR r = (z * 2 + 1) * (z * 2 + 1)"));
+        assertEquals(5, optimizer.getRemovedCount());
+        assertEquals(MyNumber.of(49), Interpreter.visit(node, context));
+        assertEquals(MyNumber.of(49), context.getSymbolTable().get("r"));
+    }
+
+    @Test
+    void doesNotShareAcrossAssignment() throws Error {
+        Context context = context();
+        Optimizer optimizer = new Optimizer(context.getSymbolTable());
+        Node node = optimizer.optimize(parse("(z * 2) + (VAR z = z * 2) + (z * 2)"));
+        assertEquals(0, optimizer.getRemovedCount());
+        assertEquals(MyNumber.of(24), Interpreter.visit(node, context));
+    }
+
+    @Test
+    void leavesLogicalOperationsOnNumbers() throws Error {
+        Optimizer optimizer = new Optimizer(context().getSymbolTable());
+        for (String text : new String[] {"1 AND TRUE", "TRUE AND 1", "NOT 1"}) {
+            Node node = optimizer.optimize(parse(text));
+            assertThrows(RuntimeError.class, () -> Interpreter.visit(node, context()), text);
+        }
+    }
+
+    @Test
+    void cachesOptimizedTree() throws Error {
+        ExpressionCache cache = new ExpressionCache("<stdin>", 16, new Optimizer(context().getSymbolTable()));
+        Node node = cache.parse("(z + 1) * (z + 1) + 2 * 3");
+        assertInstanceOf(DagNode.class, node);
+        assertSame(node, cache.parse("(z + 1) * (z + 1) + 2 * 3"));
+        assertEquals(MyNumber.of(22), Interpreter.visit(node, context()));
+    }
+}
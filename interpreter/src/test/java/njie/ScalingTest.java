@@ -0,0 +1,139 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests that the lexer, the parser and the interpreter scale linearly with the size of the input, and do not overflow
+ * a small stack on long chains and deep nesting.
+ * @author Gil-Ad Shay.
+ */
+class ScalingTest {
+    // Stack of the thread running the tests, much smaller than the default.
+    private static final long STACK_SIZE = 256 * 1024;
+    // Largest ratio of the times of two sizes 10 times apart, well below the 100 of a quadratic algorithm.
+    private static final double MAX_RATIO = 30;
+
+    private interface Task {
+        void run() throws Throwable;
+    }
+
+    /**
+     * Run the given task on a thread with a small stack, failing on any error (including StackOverflowError).
+     * @param task Given task.
+     */
+    private static void runOnSmallStack(Task task) throws Throwable {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }, "small-stack", STACK_SIZE);
+        thread.start();
+        thread.join();
+        if (failure.get() != null)
+            throw failure.get();
+    }
+
+    private static String chain(int length) {
+        StringBuilder sb = new StringBuilder("1");
+        for (int i = 1; i < length; i++)
+            sb.append(i % 2 == 0 ? " - " : " + ").append(i % 9 + 1);
+        return sb.toString();
+    }
+
+    private static String nested(int depth) {
+        return String.join("", Collections.nCopies(depth, "(1 + ")) + "1" + String.join("", Collections.nCopies(depth, ")"));
+    }
+
+    private static Node parse(String text) throws Error {
+        return new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+    }
+
+    private static MyNumber evaluate(String text) throws Error {
+        return Interpreter.visit(parse(text), new Context("<stdin>", new SymbolTable()));
+    }
+
+    /**
+     * Get the best CPU time of the current thread evaluating the given text a few times.
+     * Garbage collection runs on other threads, so collecting the large trees does not count.
+     * @param text Given text.
+     * @return Time in nanoseconds.
+     */
+    private static long time(String text) throws Error {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = bean.getCurrentThreadCpuTime();
+            evaluate(text);
+            best = Math.min(best, bean.getCurrentThreadCpuTime() - start);
+        }
+        return best;
+    }
+
+    private static void assertLinear(String small, String large) throws Error {
+        // Warm up on the small input, so the ratio is not dominated by compiling the interpreter.
+        for (int i = 0; i < 5; i++)
+            evaluate(small);
+        double ratio = (double) time(large) / time(small);
+        assertTrue(ratio < MAX_RATIO, String.format("10 times larger input took %.1f times longer", ratio));
+    }
+
+    @AfterEach
+    void restore() {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void deepestRecursiveTree(Interpreter.Engine engine) throws Throwable {
+        runOnSmallStack(() -> {
+            Interpreter.setEngine(engine);
+            Node chain = parse(chain(Interpreter.MAX_RECURSION_DEPTH));
+            Node nested = parse(nested(Interpreter.MAX_RECURSION_DEPTH - 1));
+            assertEquals(Interpreter.MAX_RECURSION_DEPTH, chain.getDepth());
+            assertEquals(Interpreter.MAX_RECURSION_DEPTH, nested.getDepth());
+            for (Node node : new Node[] {chain, nested}) {
+                Context context = new Context("<stdin>", new SymbolTable());
+                MyNumber expected = Interpreter.visit(Compiler.compile(node), context);
+                assertEquals(expected, Interpreter.visit(node, context));
+                assertEquals(expected, Interpreter.visit(new Optimizer(context.getSymbolTable()).optimize(node), context));
+                double[] out = new double[2];
+                new Batch(2, context).evaluate(node, out);
+                assertEquals(expected.getValue(), out[1]);
+            }
+        });
+    }
+
+    @Test
+    void longChain() throws Throwable {
+        runOnSmallStack(() -> {
+            // Terms 2..N alternate + and - of (i % 9 + 1)
+            long expected = 1;
+            for (int i = 1; i < 1_000_000; i++)
+                expected += (i % 2 == 0 ? -1 : 1) * (i % 9 + 1);
+            assertEquals(MyNumber.of(expected), evaluate(chain(1_000_000)));
+            assertLinear(chain(100_000), chain(1_000_000));
+        });
+    }
+
+    @Test
+    void deepNesting() throws Throwable {
+        runOnSmallStack(() -> {
+            assertEquals(MyNumber.of(100_001), evaluate(nested(100_000)));
+            assertLinear(nested(10_000), nested(100_000));
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the trees loaded out of an image run, and fail, as the parsed trees, and that images which are truncated,
+ * corrupted or of another content are not loaded.
+ * @author Gil-Ad Shay.
+ */
+class ScriptImageTest {
+    private static final String SCRIPT = String.join("\n",
+        "VAR a = 1 + 2 * 3",
+        "VAR b = a ^ 2 - 0.5",
+        "NOT (a > b) AND TRUE",
+        "(1 < 2) OR 1 / 0",
+        "1 / (a - 7)",
+        "-b + undefined",
+        "99999999999999999999 + 1",
+        "  NOT   a",
+        "VAR TRUE = 1",
+        "");
+
+    @TempDir
+    Path directory;
+    private Path script;
+    private Path image;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        script = directory.resolve("script.nj");
+        image = directory.resolve("script.nj.njc");
+        Files.writeString(script, SCRIPT);
+    }
+
+    /**
+     * Run every statement in a new global context, going on after errors.
+     * @param statements Trees of the statements.
+     * @return Result, or error with its arrows, of every statement.
+     */
+    private static List<String> run(List<Node> statements) {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        symbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        List<String> results = new ArrayList<>();
+        for (Node statement : statements) {
+            try {
+                results.add(Interpreter.visit(statement, new Context("<program>", symbolTable)).toString());
+            } catch (RuntimeError e) {
+                results.add(e.toString());
+            }
+        }
+        return results;
+    }
+
+    @Test
+    void loadsAsParsed() throws Error, IOException {
+        assertNull(ScriptImage.load(script, image));
+        List<Node> parsed = ScriptImage.loadOrCompile(script, image);
+        List<Node> loaded = ScriptImage.load(script, image);
+        assertNotNull(loaded);
+        assertEquals(parsed.size(), loaded.size());
+        assertEquals(run(parsed), run(loaded));
+        assertEquals(run(ScriptImage.parse(script.toString(), SCRIPT)), run(loaded));
+    }
+
+    @Test
+    void rejectsTruncatedImage() throws Error, IOException {
+        ScriptImage.loadOrCompile(script, image);
+        byte[] content = Files.readAllBytes(image);
+        for (int length = 0; length < content.length; length++) {
+            Files.write(image, Arrays.copyOf(content, length));
+            assertNull(ScriptImage.load(script, image), "Length " + length);
+        }
+    }
+
+    @Test
+    void rejectsCorruptedImage() throws Error, IOException {
+        ScriptImage.loadOrCompile(script, image);
+        byte[] content = Files.readAllBytes(image);
+        for (int i = 0; i < content.length; i++) {
+            byte[] corrupted = content.clone();
+            corrupted[i] ^= 1 << (i % 8);
+            Files.write(image, corrupted);
+            assertNull(ScriptImage.load(script, image), "Byte " + i);
+        }
+    }
+
+    @Test
+    void rejectsImageOfOtherContent() throws Error, IOException {
+        ScriptImage.loadOrCompile(script, image);
+        Files.writeString(script, SCRIPT.replace("1 + 2 * 3", "1 + 2 * 4"));
+        assertNull(ScriptImage.load(script, image));
+
+        // The stale image is written again.
+        List<Node> parsed = ScriptImage.loadOrCompile(script, image);
+        assertEquals(run(parsed), run(ScriptImage.load(script, image)));
+    }
+}
@@ -0,0 +1,90 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests that the right operand of AND and OR is not evaluated when the left operand decides the result.
+ * @author Gil-Ad Shay.
+ */
+class ShortCircuitTest {
+    private final int threshold = JitCompiler.getThreshold();
+
+    @AfterEach
+    void restore() {
+        Interpreter.setEngine(Interpreter.Engine.TREE_WALKER);
+        JitCompiler.setThreshold(threshold);
+    }
+
+    private static Context context() {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setConstant("NULL", MyNumber.of(0));
+        symbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        symbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        symbolTable.set("x", MyNumber.of(-1));
+        symbolTable.set("y", MyNumber.of(0));
+        return new Context("<stdin>", symbolTable);
+    }
+
+    private static Node parse(String text) throws Error {
+        return new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+    }
+
+    private static MyNumber run(Interpreter.Engine engine, String text) throws Error {
+        Interpreter.setEngine(engine);
+        // Visit the tree a few times, so the JIT runs its compiled code.
+        JitCompiler.setThreshold(1);
+        Node node = parse(text);
+        Context context = context();
+        MyNumber result = null;
+        for (int i = 0; i < 3; i++)
+            result = Interpreter.visit(node, context);
+        return result;
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void andSkipsRightOperand(Interpreter.Engine engine) throws Error {
+        assertEquals(MyBoolean.FALSE, run(engine, "FALSE AND 1/0"));
+        assertEquals(MyBoolean.FALSE, run(engine, "x > 0 AND 10/y > 1"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void orSkipsRightOperand(Interpreter.Engine engine) throws Error {
+        assertEquals(MyBoolean.TRUE, run(engine, "TRUE OR 1/0"));
+        assertEquals(MyBoolean.TRUE, run(engine, "x < 0 OR 10/y > 1"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Interpreter.Engine.class)
+    void evaluatesUndecidedRightOperand(Interpreter.Engine engine) {
+        assertThrows(RuntimeError.class, () -> run(engine, "TRUE AND 1/0"));
+        assertThrows(RuntimeError.class, () -> run(engine, "FALSE OR 1/0"));
+    }
+
+    @Test
+    void batchSkipsDecidedRows() throws Error {
+        Batch batch = new Batch(3, context()).put("y", new int[] {0, 2, -5});
+        double[] out = new double[3];
+        batch.evaluate(parse("y != 0 AND 10/y > 1"), out);
+        assertArrayEquals(new double[] {0, 1, 0}, out);
+        batch.evaluate(parse("y == 0 OR 10/y > 1"), out);
+        assertArrayEquals(new double[] {1, 1, 0}, out);
+    }
+
+    @Test
+    void optimizerKeepsRightOperand() throws Error {
+        Context context = context();
+        Node node = new Optimizer(context.getSymbolTable()).optimize(parse("FALSE AND 1/0"));
+        assertEquals(MyBoolean.FALSE, node.visit(context));
+        node = new Optimizer(context.getSymbolTable()).optimize(parse("TRUE OR 1/0"));
+        assertEquals(MyBoolean.TRUE, node.visit(context));
+    }
+}
@@ -0,0 +1,134 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that restoring a snapshot leaves the symbol table as running the prelude does, in both modes, and that
+ * snapshots which are truncated, corrupted or of another prelude are not restored.
+ * @author Gil-Ad Shay.
+ */
+class SnapshotTest {
+    // In reactive mode, the last line leaves c undefined, as its definition divides by zero.
+    private static final String PRELUDE = String.join("\n",
+        "VAR a = 3",
+        "VAR b = a * 2",
+        "VAR c = 1 / (a - 2)",
+        "VAR big = 2 ^ 70",
+        "VAR half = b / 4.0",
+        "VAR a = 2",
+        "");
+    private static final String[] NAMES = {"a", "b", "c", "big", "half"};
+    private static final String[] LATER = {"c + 1", "VAR a = 4", "c + b", "half", "VAR TRUE = 1"};
+
+    @TempDir
+    Path directory;
+
+    private static SymbolTable symbolTable(boolean reactive) {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.setReactive(reactive);
+        symbolTable.setConstant("NULL", MyNumber.of(0));
+        symbolTable.setConstant("TRUE", MyBoolean.TRUE);
+        symbolTable.setConstant("FALSE", MyBoolean.FALSE);
+        return symbolTable;
+    }
+
+    private static byte[] hash(String prelude) {
+        return ScriptImage.hash(ByteBuffer.wrap(prelude.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Run the prelude in a new symbol table, and take a snapshot of it.
+     * @param snapshot Path of the snapshot.
+     * @param reactive Whether the symbol table is reactive.
+     * @return The symbol table.
+     */
+    private static SymbolTable runPrelude(Path snapshot, boolean reactive) throws Error, IOException {
+        SymbolTable symbolTable = symbolTable(reactive);
+        List<Node> statements = ScriptImage.parse("prelude.nj", PRELUDE);
+        for (Node statement : statements)
+            Interpreter.visit(statement, new Context("<program>", symbolTable));
+        Snapshot.write(snapshot, hash(PRELUDE), statements, symbolTable);
+        return symbolTable;
+    }
+
+    /**
+     * Get the variables of the prelude, and then the results of running more statements.
+     * @param symbolTable Symbol table the prelude ran in, or was restored into.
+     * @return Value, or error with its arrows, of every variable and statement.
+     */
+    private static List<String> state(SymbolTable symbolTable) throws Error {
+        List<String> results = new ArrayList<>();
+        for (String name : NAMES) {
+            RuntimeError error = symbolTable.getError(SymbolTable.symbolOf(name).getSlot());
+            results.add(error != null ? error.toString() : String.valueOf(symbolTable.get(name)));
+        }
+        for (String text : LATER) {
+            try {
+                Node node = new Parser(new Lexer("<stdin>", text).makeTokens()).parse();
+                results.add(Interpreter.visit(node, new Context("<program>", symbolTable)).toString());
+            } catch (RuntimeError e) {
+                results.add(e.toString());
+            }
+        }
+        return results;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void restoresAsPrelude(boolean reactive) throws Error, IOException {
+        Path snapshot = directory.resolve("prelude.snapshot");
+        SymbolTable expected = runPrelude(snapshot, reactive);
+        SymbolTable restored = symbolTable(reactive);
+        assertTrue(Snapshot.restore(snapshot, hash(PRELUDE), restored, new Context("<program>", restored)));
+        assertEquals(state(expected), state(restored));
+    }
+
+    @Test
+    void rejectsSnapshotOfOtherPreludeOrMode() throws Error, IOException {
+        Path snapshot = directory.resolve("prelude.snapshot");
+        runPrelude(snapshot, true);
+        SymbolTable symbolTable = symbolTable(true);
+        assertFalse(Snapshot.restore(snapshot, hash(PRELUDE + "VAR d = 1\n"), symbolTable, new Context("<program>", symbolTable)));
+        SymbolTable other = symbolTable(false);
+        assertFalse(Snapshot.restore(snapshot, hash(PRELUDE), other, new Context("<program>", other)));
+        assertNull(symbolTable.get("a"));
+        assertNull(other.get("a"));
+    }
+
+    @Test
+    void rejectsTruncatedOrCorruptedSnapshot() throws Error, IOException {
+        Path snapshot = directory.resolve("prelude.snapshot");
+        runPrelude(snapshot, true);
+        byte[] content = Files.readAllBytes(snapshot);
+        List<byte[]> damaged = new ArrayList<>();
+        for (int i = 0; i < content.length; i++) {
+            damaged.add(Arrays.copyOf(content, i));
+            byte[] corrupted = content.clone();
+            corrupted[i] ^= 1 << (i % 8);
+            damaged.add(corrupted);
+        }
+        for (byte[] bytes : damaged) {
+            Files.write(snapshot, bytes);
+            SymbolTable symbolTable = symbolTable(true);
+            assertFalse(Snapshot.restore(snapshot, hash(PRELUDE), symbolTable, new Context("<program>", symbolTable)));
+            assertNull(symbolTable.get("a"));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package njie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the slots of names which are no longer used are reused, and that slots in use are kept.
+ * @author Gil-Ad Shay.
+ */
+class SymbolTableTest {
+    private static final int NAMES = 100_000;
+
+    /**
+     * Validate many expressions, each with a name of its own, without keeping their trees.
+     * @param prefix Prefix of the names.
+     */
+    private static void validateMany(String prefix) {
+        for (int i = 0; i < NAMES; i++) {
+            assertTrue(Validator.validate("<stdin>", prefix + i + " + 1").isSuccess());
+            if (i % 10_000 == 0)
+                System.gc();
+        }
+        System.gc();
+    }
+
+    @Test
+    void reusesSlotsOfUnusedNames() throws Error {
+        validateMany("unused");
+        assertTrue(SymbolTable.getSlotLimit() < NAMES / 2, "Slots: " + SymbolTable.getSlotLimit());
+
+        SymbolTable symbolTable = new SymbolTable();
+        Context context = new Context("<stdin>", symbolTable);
+        assertEquals(MyNumber.of(1), Interpreter.visit(new Parser(new Lexer("<stdin>", "VAR fresh = 1").makeTokens()).parse(), context));
+        symbolTable.set("brandnew", MyNumber.of(2));
+        assertEquals(MyNumber.of(2), symbolTable.get("brandnew"));
+    }
+
+    @Test
+    void keepsSlotsOfStoredNames() {
+        SymbolTable symbolTable = new SymbolTable();
+        symbolTable.set("kept", MyNumber.of(7));
+        int slot = SymbolTable.symbolOf("kept").getSlot();
+        validateMany("other");
+
+        assertEquals(slot, SymbolTable.symbolOf("kept").getSlot());
+        assertEquals(MyNumber.of(7), symbolTable.get("kept"));
+        assertSame(SymbolTable.symbolOf("kept"), SymbolTable.symbolOf("kept"));
+    }
+}